@@ -0,0 +1,98 @@
+package com.baoyan.benchmark;
+
+import com.baoyan.entity.ScoreItem;
+import com.baoyan.vo.ScoreItemSummary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成数据，固定随机种子保证每次运行数据一致
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20240901L;
+
+    // 专业数，按学生 id 轮流分配
+    static final int PROFESSIONS = 20;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 总分在 60~100 之间、保留两位小数，含一定比例的并列分数
+     */
+    static List<BigDecimal> scores(int count) {
+        Random random = new Random(SEED);
+        List<BigDecimal> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            scores.add(BigDecimal.valueOf(6000 + random.nextInt(4000), 2));
+        }
+        return scores;
+    }
+
+    static String studentId(int i) {
+        return String.format("S%07d", i);
+    }
+
+    static String profession(int i) {
+        return "专业" + (i % PROFESSIONS);
+    }
+
+    /**
+     * 每个学生平均 perStudent 个加分项目，状态按 待审核:通过:驳回 = 2:6:2 分布
+     */
+    static List<ScoreItem> items(int students, int perStudent) {
+        Random random = new Random(SEED);
+        LocalDateTime now = LocalDateTime.now();
+        List<ScoreItem> items = new ArrayList<>(students * perStudent);
+        long id = 1;
+        for (int s = 0; s < students; s++) {
+            for (int k = 0; k < perStudent; k++) {
+                ScoreItem item = new ScoreItem();
+                item.setId(id++);
+                item.setStudentId(studentId(s));
+                item.setStudentName("学生" + s);
+                item.setItemName("竞赛获奖" + k);
+                item.setItemCategory("竞赛");
+                item.setItemScore(BigDecimal.valueOf(random.nextInt(500), 2).setScale(2, RoundingMode.HALF_UP));
+                item.setItemDescription("省级竞赛二等奖，证明材料见附件");
+                item.setProofFiles("[\"/upload/proof/" + id + ".pdf\"]");
+                int r = random.nextInt(10);
+                item.setStatus(r < 2 ? ScoreItem.Status.PENDING : r < 8 ? ScoreItem.Status.APPROVED : ScoreItem.Status.REJECTED);
+                item.setCreateTime(now.minusMinutes(id));
+                item.setUpdateTime(now);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 与 ScoreItemMapper.SUMMARY_COLUMNS 对应的列表行
+     */
+    static List<ScoreItemSummary> summaries(List<ScoreItem> items) {
+        List<ScoreItemSummary> summaries = new ArrayList<>(items.size());
+        for (ScoreItem item : items) {
+            ScoreItemSummary summary = new ScoreItemSummary();
+            summary.setId(item.getId());
+            summary.setStudentId(item.getStudentId());
+            summary.setStudentName(item.getStudentName());
+            summary.setItemName(item.getItemName());
+            summary.setItemCategory(item.getItemCategory());
+            summary.setItemScore(item.getItemScore());
+            summary.setStatus(item.getStatus());
+            summary.setRejectReason(item.getRejectReason());
+            summary.setCreateTime(item.getCreateTime());
+            summary.setAuditTime(item.getAuditTime());
+            summary.setAuditorName(item.getAuditorName());
+            summary.setResubmitCount(item.getResubmitCount());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,96 @@
+package com.baoyan.benchmark;
+
+import com.baoyan.service.RankEntry;
+import com.baoyan.service.RankingEngine;
+import com.baoyan.service.RankingIndex;
+import com.baoyan.vo.RankedStudent;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 排名计算：updateRankingByProfession 中的并列名次循环，以及内存排名索引的单个学生更新和名次查询
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private List<BigDecimal> scores;
+    private List<BigDecimal> sortedScores;
+    private RankingIndex index;
+    private List<RankEntry> entries;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        scores = BenchmarkData.scores(students);
+
+        // 数据库按 total_score DESC 返回，这里预先排好序
+        sortedScores = new ArrayList<>(scores);
+        sortedScores.sort(Comparator.reverseOrder());
+
+        entries = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            entries.add(new RankEntry(BenchmarkData.studentId(i), "学生" + i,
+                    BenchmarkData.profession(i), scores.get(i)));
+        }
+        index = new RankingIndex();
+        index.rebuild(entries);
+    }
+
+    @Benchmark
+    public int[] assignRanks() {
+        return RankingEngine.assignRanks(sortedScores);
+    }
+
+    @Benchmark
+    public List<BigDecimal> sortAndAssignRanks() {
+        List<BigDecimal> sorted = new ArrayList<>(scores);
+        sorted.sort(Comparator.reverseOrder());
+        RankingEngine.assignRanks(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public RankingIndex.Position indexUpdateAndLookup() {
+        RankEntry old = entries.get(cursor++ % students);
+        RankEntry updated = new RankEntry(old.getStudentId(), old.getName(), old.getProfession(),
+                old.getTotalScore().add(BigDecimal.ONE));
+        index.put(updated);
+        RankingIndex.Position position = index.lookup(updated.getStudentId());
+        index.put(old);
+        return position;
+    }
+
+    @Benchmark
+    public List<RankedStudent> indexTop100() {
+        return index.current().range(BenchmarkData.profession(0), 0, 100);
+    }
+
+    @Benchmark
+    public List<RankedStudent> indexCollegeTop100() {
+        return index.current().range(null, 0, 100);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public RankingIndex indexRebuild() {
+        RankingIndex rebuilt = new RankingIndex();
+        rebuilt.rebuild(entries);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.baoyan.benchmark;
+
+import com.baoyan.entity.ScoreItem;
+import com.baoyan.vo.ScoreItemSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScoreItem 列表的 Jackson 序列化，ObjectMapper 配置与 Spring MVC 默认一致（含 JavaTimeModule）；
+ * summary* 为列表接口实际返回的 ScoreItemSummary，用于对比完整记录的序列化开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreItemJsonBenchmark {
+
+    // 以学生数计，每个学生 1 个项目
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private ObjectMapper objectMapper;
+    private List<ScoreItem> items;
+    private List<ScoreItemSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        items = BenchmarkData.items(students, 1);
+        summaries = BenchmarkData.summaries(items);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public void writeToStream() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), items);
+    }
+
+    @Benchmark
+    public byte[] summaryWriteValueAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public void summaryWriteToStream() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), summaries);
+    }
+}
@@ -0,0 +1,63 @@
+package com.baoyan.benchmark;
+
+import com.baoyan.entity.ScoreItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学生项目统计：原 StudentController.getStudentStats 的四次 stream 遍历与单次遍历对比。
+ * 接口现已改为数据库聚合查询，这里保留内存版本作为对照基线。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentStatsBenchmark {
+
+    // 以学生数计，每个学生 10 个项目
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private List<ScoreItem> items;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkData.items(students, 10);
+    }
+
+    @Benchmark
+    public double[] streamAggregation() {
+        long pendingCount = items.stream().filter(ScoreItem::isPending).count();
+        long approvedCount = items.stream().filter(ScoreItem::isApproved).count();
+        long rejectedCount = items.stream().filter(ScoreItem::isRejected).count();
+        double totalScore = items.stream()
+                .filter(ScoreItem::isApproved)
+                .mapToDouble(item -> item.getItemScore().doubleValue())
+                .sum();
+        return new double[]{pendingCount, approvedCount, rejectedCount, totalScore};
+    }
+
+    @Benchmark
+    public Object[] singlePassAggregation() {
+        int pending = 0;
+        int approved = 0;
+        int rejected = 0;
+        BigDecimal approvedScore = BigDecimal.ZERO;
+        for (ScoreItem item : items) {
+            if (item.isPending()) {
+                pending++;
+            } else if (item.isApproved()) {
+                approved++;
+                approvedScore = approvedScore.add(item.getItemScore());
+            } else if (item.isRejected()) {
+                rejected++;
+            }
+        }
+        return new Object[]{pending, approved, rejected, approvedScore};
+    }
+}
@@ -0,0 +1,70 @@
+package com.baoyan.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 总分计算：基础分 + 通过审核加分之和的 BigDecimal 运算（updateStudentTotalScore / batchUpdateAllScores）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalScoreBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private List<String> ids;
+    private List<BigDecimal> baseScores;
+    private List<BigDecimal> oldTotals;
+    private Map<String, BigDecimal> approvedScores;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        ids = new ArrayList<>(students);
+        baseScores = BenchmarkData.scores(students);
+        oldTotals = new ArrayList<>(students);
+        approvedScores = new HashMap<>();
+        for (int i = 0; i < students; i++) {
+            String id = BenchmarkData.studentId(i);
+            ids.add(id);
+            // 约 70% 的学生有通过审核的加分
+            BigDecimal approved = random.nextInt(10) < 7 ? BigDecimal.valueOf(random.nextInt(1000), 2) : null;
+            if (approved != null) {
+                approvedScores.put(id, approved);
+            }
+            // 约 10% 的学生总分需要更新
+            BigDecimal total = baseScores.get(i).add(approved != null ? approved : BigDecimal.ZERO);
+            oldTotals.add(random.nextInt(10) == 0 ? total.add(BigDecimal.ONE) : total);
+        }
+    }
+
+    /**
+     * 与 batchUpdateAllScores 相同的循环：计算总分并挑出发生变化的学生
+     */
+    @Benchmark
+    public int computeChangedTotals(Blackhole blackhole) {
+        int changed = 0;
+        for (int i = 0; i < students; i++) {
+            BigDecimal approved = approvedScores.get(ids.get(i));
+            BigDecimal total = baseScores.get(i).add(approved != null ? approved : BigDecimal.ZERO);
+            if (oldTotals.get(i).compareTo(total) != 0) {
+                blackhole.consume(total);
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
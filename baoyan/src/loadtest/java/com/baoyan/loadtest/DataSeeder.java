@@ -0,0 +1,90 @@
+package com.baoyan.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按压测参数批量写入学生、教师和加分项目，约一半项目为待审核，供审核接口消费
+ */
+class DataSeeder {
+
+    private static final int BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(20240901L);
+
+    DataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    static String studentId(int i) {
+        return String.format("S%07d", i);
+    }
+
+    static String teacherId(int i) {
+        return String.format("T%05d", i);
+    }
+
+    void seed(LoadTestSettings settings) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < settings.getStudents(); i++) {
+            BigDecimal base = BigDecimal.valueOf(6000 + random.nextInt(3000), 2);
+            rows.add(new Object[]{studentId(i), "学生" + i, "123456", "专业" + (i % settings.getProfessions()),
+                    base, base, "班级" + (i % 50), now});
+            flushIfFull(rows, "INSERT INTO student (id, name, password, profession, base_score, total_score, "
+                    + "class_name, status, created_time) VALUES (?, ?, ?, ?, ?, ?, ?, 1, ?)");
+        }
+        flush(rows, "INSERT INTO student (id, name, password, profession, base_score, total_score, "
+                + "class_name, status, created_time) VALUES (?, ?, ?, ?, ?, ?, ?, 1, ?)");
+
+        for (int i = 0; i < settings.getTeachers(); i++) {
+            rows.add(new Object[]{teacherId(i), "教师" + i, "123456", "专业" + (i % settings.getProfessions()), now});
+        }
+        flush(rows, "INSERT INTO teacher (id, name, password, profession, status, can_audit, created_time) "
+                + "VALUES (?, ?, ?, ?, 1, 1, ?)");
+
+        String itemSql = "INSERT INTO score_item (student_id, student_name, item_name, item_category, item_score, "
+                + "item_description, status, auditor_id, auditor_name, create_time, update_time) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        for (int i = 0; i < settings.getItems(); i++) {
+            int student = random.nextInt(settings.getStudents());
+            int status = random.nextInt(10) < 5 ? 0 : random.nextInt(10) < 8 ? 1 : 2;
+            String auditor = status == 0 ? null : teacherId(random.nextInt(settings.getTeachers()));
+            rows.add(new Object[]{studentId(student), "学生" + student, "竞赛获奖", "竞赛",
+                    BigDecimal.valueOf(random.nextInt(500), 2), "省级竞赛二等奖", status,
+                    auditor, auditor == null ? null : "教师", Timestamp.valueOf(LocalDateTime.now().minusSeconds(i)), now});
+            flushIfFull(rows, itemSql);
+        }
+        flush(rows, itemSql);
+
+        // 初始加分之和与总分 = 基础分 + 已通过加分，名次随后按专业计算
+        jdbcTemplate.update("UPDATE student s SET approved_score = COALESCE("
+                + "(SELECT SUM(item_score) FROM score_item si WHERE si.student_id = s.id AND si.status = 1), 0)");
+        jdbcTemplate.update("UPDATE student SET total_score = base_score + approved_score");
+    }
+
+    List<Long> pendingItemIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM score_item WHERE status = 0", Long.class);
+    }
+
+    private void flushIfFull(List<Object[]> rows, String sql) {
+        if (rows.size() >= BATCH) {
+            flush(rows, sql);
+        }
+    }
+
+    private void flush(List<Object[]> rows, String sql) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
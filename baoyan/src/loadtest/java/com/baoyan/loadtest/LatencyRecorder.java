@@ -0,0 +1,70 @@
+package com.baoyan.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口记录请求耗时（纳秒），结束后计算分位数和吞吐量
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        Samples s = samples.computeIfAbsent(endpoint, key -> new Samples());
+        s.add(nanos);
+        if (!success) {
+            s.errors.increment();
+        }
+    }
+
+    String report(double elapsedSeconds) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-28s %9s %7s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)"));
+        samples.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    long[] sorted = entry.getValue().sorted();
+                    out.append(String.format("%-28s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                            entry.getKey(), sorted.length, entry.getValue().errors.sum(),
+                            sorted.length / elapsedSeconds,
+                            millis(percentile(sorted, 50)), millis(percentile(sorted, 95)),
+                            millis(percentile(sorted, 99)), millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0)));
+                });
+        return out.toString();
+    }
+
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private final LongAdder errors = new LongAdder();
+
+        synchronized void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
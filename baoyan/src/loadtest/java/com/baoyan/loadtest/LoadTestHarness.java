@@ -0,0 +1,220 @@
+package com.baoyan.loadtest;
+
+import com.baoyan.service.AuditStatsProvider;
+import com.baoyan.service.RankingJobRunner;
+import com.baoyan.service.RankingQueue;
+import com.baoyan.service.RankingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 端到端压测：内嵌 H2 启动应用，写入测试数据后按比例并发请求
+ * /teacher/approve/{id}、/ranking/student/{id}、/student/page，输出各接口 p50/p95/p99 延迟和吞吐量。
+ * <p>
+ * 运行：mvn -Ploadtest test -Dtest=LoadTestHarness -Dloadtest.students=10000 -Dloadtest.concurrency=16，
+ * 参数见 {@link LoadTestSettings}，报告同时写入 target/loadtest-report.txt。
+ * <p>
+ * 对比线程模型：并发数大于 server.tomcat.threads.max 时分别运行
+ * mvn -Ploadtest,jdk21 test -Dtest=LoadTestHarness -Dloadtest.concurrency=200 -Dbaoyan.execution.mode=platform 和
+ * -Dbaoyan.execution.mode=virtual，比较两份报告的吞吐量和 p99。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LoadTestHarness {
+
+    private static final String APPROVE = "POST /teacher/approve/{id}";
+    private static final String RANKING = "GET /ranking/student/{id}";
+    private static final String PAGE = "GET /student/page";
+
+    @LocalServerPort
+    private int port;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private RankingService rankingService;
+
+    @Resource
+    private RankingQueue rankingQueue;
+
+    @Resource
+    private RankingJobRunner rankingJobRunner;
+
+    @Resource
+    private AuditStatsProvider auditStatsProvider;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private LoadTestSettings settings;
+    private Queue<Long> pendingItems;
+
+    @Test
+    void run() throws Exception {
+        settings = new LoadTestSettings();
+        System.out.println("压测参数: " + settings);
+
+        long seedStart = System.currentTimeMillis();
+        DataSeeder seeder = new DataSeeder(jdbcTemplate);
+        seeder.seed(settings);
+        prepareAfterSeed();
+        List<Long> pending = new ArrayList<>(seeder.pendingItemIds());
+        Collections.shuffle(pending);
+        pendingItems = new ConcurrentLinkedQueue<>(pending);
+        System.out.printf("数据准备完成: %dms, 待审核项目 %d 个%n", System.currentTimeMillis() - seedStart, pending.size());
+
+        drive(new LatencyRecorder(), settings.getWarmupSeconds());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        drive(recorder, settings.getDurationSeconds());
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        // 等重算队列清空后核对物化的加分之和，差值维护正确时应没有需要修复的学生
+        long drainDeadline = System.currentTimeMillis() + 30_000;
+        while (rankingQueue.depth() > 0 && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(100);
+        }
+        int drift = rankingService.repairScoreDrift();
+
+        String report = "压测参数: " + settings + System.lineSeparator()
+                + String.format("耗时 %.1fs, 加分之和偏差 %d%n", elapsedSeconds, drift) + recorder.report(elapsedSeconds);
+        System.out.println(report);
+        Path out = Paths.get("target", "loadtest-report.txt");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, report);
+
+        assertTrue(report.contains(RANKING), "没有完成任何请求");
+    }
+
+    /**
+     * 数据是在应用启动之后写入的，需要重新计算名次并刷新内存索引和统计计数器
+     */
+    private void prepareAfterSeed() {
+        // 与定时全量重算同一流程：重算总分、逐个专业排名并重建内存索引
+        rankingJobRunner.run();
+        auditStatsProvider.reconcile();
+    }
+
+    private void drive(LatencyRecorder recorder, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(settings.getConcurrency());
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < settings.getConcurrency(); i++) {
+                workers.add(pool.submit(() -> worker(recorder, deadline)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void worker(LatencyRecorder recorder, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int totalWeight = settings.getApproveWeight() + settings.getRankingWeight() + settings.getPageWeight();
+        String cursor = "";
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            if (pick < settings.getApproveWeight() && approve(recorder, random)) {
+                continue;
+            }
+            if (pick < settings.getApproveWeight() + settings.getRankingWeight()) {
+                String studentId = DataSeeder.studentId(random.nextInt(settings.getStudents()));
+                send(recorder, RANKING, HttpRequest.newBuilder(uri("/ranking/student/" + studentId)).GET().build());
+            } else {
+                cursor = page(recorder, cursor);
+            }
+        }
+    }
+
+    /**
+     * 审核一个待审核项目，待审核项目用完时返回 false，由调用方改发读请求
+     */
+    private boolean approve(LatencyRecorder recorder, ThreadLocalRandom random) {
+        Long itemId = pendingItems.poll();
+        if (itemId == null) {
+            return false;
+        }
+        String teacherId = DataSeeder.teacherId(random.nextInt(settings.getTeachers()));
+        String body = "{\"teacherId\":\"" + teacherId + "\",\"teacherName\":\"教师\",\"auditNote\":\"压测\"}";
+        send(recorder, APPROVE, HttpRequest.newBuilder(uri("/teacher/approve/" + itemId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        return true;
+    }
+
+    /**
+     * 沿 nextCursor 向后翻页，翻到末页后从头开始
+     */
+    private String page(LatencyRecorder recorder, String cursor) {
+        String path = "/student/page?pageSize=20&withTotal=false&after="
+                + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+        HttpResponse<String> response = send(recorder, PAGE, HttpRequest.newBuilder(uri(path)).GET().build());
+        if (response == null || response.statusCode() != 200) {
+            return "";
+        }
+        try {
+            JsonNode next = objectMapper.readTree(response.body()).get("nextCursor");
+            return next == null || next.isNull() ? "" : next.asText();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private HttpResponse<String> send(LatencyRecorder recorder, String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode() < 400);
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
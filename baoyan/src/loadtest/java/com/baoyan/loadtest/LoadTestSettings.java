@@ -0,0 +1,39 @@
+package com.baoyan.loadtest;
+
+import lombok.Getter;
+
+/**
+ * 压测参数，均可通过 -Dloadtest.xxx 覆盖
+ */
+@Getter
+class LoadTestSettings {
+
+    private final int students = intProperty("loadtest.students", 10000);
+    private final int teachers = intProperty("loadtest.teachers", 50);
+    private final int items = intProperty("loadtest.items", 50000);
+    private final int professions = intProperty("loadtest.professions", 20);
+    private final int concurrency = intProperty("loadtest.concurrency", 16);
+    private final int warmupSeconds = intProperty("loadtest.warmup-seconds", 5);
+    private final int durationSeconds = intProperty("loadtest.duration-seconds", 30);
+
+    // 请求混合比例（权重）
+    private final int approveWeight = intProperty("loadtest.weight.approve", 10);
+    private final int rankingWeight = intProperty("loadtest.weight.ranking", 60);
+    private final int pageWeight = intProperty("loadtest.weight.page", 30);
+
+    // 应用线程模型，对比时分别以 -Dbaoyan.execution.mode=platform / virtual 运行（virtual 需要 JDK 21 和 -Pjdk21）
+    private final String executionMode = System.getProperty("baoyan.execution.mode", "platform");
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("students=%d, teachers=%d, items=%d, professions=%d, concurrency=%d, "
+                        + "warmup=%ds, duration=%ds, weights(approve/ranking/page)=%d/%d/%d, execution=%s",
+                students, teachers, items, professions, concurrency, warmupSeconds, durationSeconds,
+                approveWeight, rankingWeight, pageWeight, executionMode);
+    }
+}
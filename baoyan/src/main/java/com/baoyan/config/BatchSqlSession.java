@@ -0,0 +1,38 @@
+package com.baoyan.config;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * BATCH 执行器的 SqlSession，用于批量写入，语句在事务提交时作为一个 JDBC batch 发送。
+ * <p>
+ * 一个 Spring 事务只绑定一种执行器的 SqlSession：不要在已经通过普通 Mapper（REUSE 执行器）读写过的
+ * {@code @Transactional} 方法里再使用它，否则抛出 "Cannot change the ExecutorType when there is an existing transaction"。
+ * 调用方应像 ScoreItemService.batchAudit、RankingService.writeScores 那样在自己开启的事务（TransactionTemplate）中使用，
+ * 该事务内的查询也经由本类取得的 Mapper 执行。
+ */
+@Component
+public class BatchSqlSession {
+
+    private final SqlSessionTemplate template;
+
+    public BatchSqlSession(SqlSessionFactory sqlSessionFactory) {
+        this.template = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+
+    public <T> T getMapper(Class<T> type) {
+        return template.getMapper(type);
+    }
+
+    /**
+     * 立即发送已积累的语句，返回结果按语句分组，顺序与调用顺序一致
+     */
+    public List<BatchResult> flushStatements() {
+        return template.flushStatements();
+    }
+}
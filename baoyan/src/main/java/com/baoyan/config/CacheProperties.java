@@ -0,0 +1,34 @@
+package com.baoyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 应用内缓存配置（baoyan.cache.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "baoyan.cache")
+public class CacheProperties {
+
+    /**
+     * 分页总数缓存的有效期（毫秒），写操作会同步调整缓存值，过期后重新 COUNT
+     */
+    private long countTtlMs = 30000;
+
+    /**
+     * 学生、加分项目按 id 查询缓存的最大条数
+     */
+    private long entityMaxSize = 10000;
+
+    /**
+     * 学生、加分项目按 id 查询缓存的有效期（毫秒）
+     */
+    private long entityTtlMs = 60000;
+
+    /**
+     * 学生项目统计缓存的有效期（毫秒），该学生的项目有写操作时立即失效
+     */
+    private long studentStatsTtlMs = 300000;
+}
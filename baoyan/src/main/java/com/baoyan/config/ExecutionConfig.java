@@ -0,0 +1,66 @@
+package com.baoyan.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 虚拟线程执行模式：baoyan.execution.mode=virtual 时 Tomcat 请求和 @Scheduled 任务（排名重算队列、
+ * 对账、分数核对）都在虚拟线程上执行，阻塞在 JDBC 上的请求不再占用工作线程，并发上限由数据库连接池决定。
+ * JDK 不支持虚拟线程时记录告警并保持平台线程。
+ */
+@Slf4j
+@Configuration
+public class ExecutionConfig implements SchedulingConfigurer {
+
+    @Resource
+    private ExecutionProperties executionProperties;
+
+    private ScheduledExecutorService virtualScheduler;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (useVirtualThreads()) {
+                protocolHandler.setExecutor(VirtualThreads.newPerTaskExecutor());
+                log.info("请求处理使用虚拟线程");
+            }
+        };
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (useVirtualThreads()) {
+            virtualScheduler = Executors.newScheduledThreadPool(
+                    executionProperties.getSchedulerPoolSize(), VirtualThreads.factory("scheduling-"));
+            registrar.setScheduler(virtualScheduler);
+            log.info("定时任务使用虚拟线程");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (virtualScheduler != null) {
+            virtualScheduler.shutdownNow();
+        }
+    }
+
+    private boolean useVirtualThreads() {
+        if (executionProperties.getMode() != ExecutionProperties.Mode.VIRTUAL) {
+            return false;
+        }
+        if (!VirtualThreads.isSupported()) {
+            log.warn("当前 JDK {} 不支持虚拟线程，继续使用平台线程", Runtime.version());
+            return false;
+        }
+        return true;
+    }
+}
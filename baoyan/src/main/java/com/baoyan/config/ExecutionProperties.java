@@ -0,0 +1,29 @@
+package com.baoyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求处理和后台任务的线程模型（baoyan.execution.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "baoyan.execution")
+public class ExecutionProperties {
+
+    /**
+     * platform-Tomcat 工作线程池和单线程调度器；virtual-每个请求和定时任务一个虚拟线程（需要 JDK 21+）
+     */
+    private Mode mode = Mode.PLATFORM;
+
+    /**
+     * 虚拟线程模式下定时任务调度器的线程数，任务本身在虚拟线程上执行
+     */
+    private int schedulerPoolSize = 4;
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+}
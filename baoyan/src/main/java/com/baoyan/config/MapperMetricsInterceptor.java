@@ -0,0 +1,130 @@
+package com.baoyan.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录每个 Mapper 方法的调用次数、耗时分布和影响/返回行数，超过阈值的慢语句按 Mapper id 输出日志。
+ * 指标：baoyan.mapper.calls（Timer）、baoyan.mapper.rows（DistributionSummary），标签 mapper、method、type、outcome。
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class})
+})
+public class MapperMetricsInterceptor implements Interceptor {
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private MetricsProperties metricsProperties;
+
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        String outcome = "error";
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            outcome = "success";
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            record(statement, elapsed, outcome, result);
+        }
+    }
+
+    private void record(MappedStatement statement, long elapsedNanos, String outcome, Object result) {
+        StatementMeters statementMeters = meters.computeIfAbsent(statement.getId(), id -> new StatementMeters(statement));
+        int rows = rows(result);
+        statementMeters.timer(outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            statementMeters.rows.record(rows);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long threshold = metricsProperties.getSlowStatementMs();
+        if (threshold > 0 && elapsedMillis >= threshold) {
+            log.warn("慢语句: {} {}ms rows={} outcome={}", statement.getId(), elapsedMillis, rows, outcome);
+        }
+    }
+
+    // 查询返回列表大小，更新返回影响行数；BATCH 执行器的更新在 flush 前没有行数，记为 -1
+    private static int rows(Object result) {
+        if (result instanceof List<?> list) {
+            return list.size();
+        }
+        if (result instanceof Integer count && count >= 0) {
+            return count;
+        }
+        return -1;
+    }
+
+    /**
+     * 每个 Mapper 方法的指标只注册一次，避免每次调用都构建和查找
+     */
+    private final class StatementMeters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        StatementMeters(MappedStatement statement) {
+            String id = statement.getId();
+            int dot = id.lastIndexOf('.');
+            String mapper = id.substring(id.lastIndexOf('.', dot - 1) + 1, dot);
+            String method = id.substring(dot + 1);
+            String type = statement.getSqlCommandType().name().toLowerCase();
+            Tags tags = Tags.of("mapper", mapper, "method", method, "type", type);
+
+            success = timer(tags, "success");
+            error = timer(tags, "error");
+            rows = DistributionSummary.builder("baoyan.mapper.rows")
+                    .description("Mapper 方法影响或返回的行数")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(Tags tags, String outcome) {
+            return Timer.builder("baoyan.mapper.calls")
+                    .description("Mapper 方法耗时")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram(metricsProperties.isHistogram())
+                    .register(meterRegistry);
+        }
+
+        Timer timer(String outcome) {
+            return "success".equals(outcome) ? success : error;
+        }
+    }
+}
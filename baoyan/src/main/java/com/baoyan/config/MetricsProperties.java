@@ -0,0 +1,24 @@
+package com.baoyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 性能指标相关配置（baoyan.metrics.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "baoyan.metrics")
+public class MetricsProperties {
+
+    /**
+     * Mapper 语句耗时超过该值（毫秒）时记录慢语句日志，0 表示不记录
+     */
+    private long slowStatementMs = 200;
+
+    /**
+     * 是否为 Mapper 耗时发布直方图桶（供 Prometheus 等计算分位数）
+     */
+    private boolean histogram = true;
+}
@@ -0,0 +1,79 @@
+package com.baoyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 排名相关配置（baoyan.ranking.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "baoyan.ranking")
+public class RankingProperties {
+
+    /**
+     * 加分项审核后学生排名的更新方式。
+     * 内存索引就绪时 INCREMENTAL 和 FULL 不生效，名次由索引给出，student_rank 经重算队列按专业写回
+     */
+    private UpdateMode updateMode = UpdateMode.INCREMENTAL;
+
+    /**
+     * 批量重算总分时每批提交的学生数
+     */
+    private int batchChunkSize = 1000;
+
+    /**
+     * 核对物化加分之和（student.approved_score）的间隔（毫秒）
+     */
+    private long scoreVerifyIntervalMs = 3600000;
+
+    /**
+     * 内存排名索引
+     */
+    private Index index = new Index();
+
+    /**
+     * 排名重算队列
+     */
+    private Queue queue = new Queue();
+
+    /**
+     * 定时全量重算
+     */
+    private Nightly nightly = new Nightly();
+
+    public enum UpdateMode {
+        FULL,        // 整个专业重新排名
+        INCREMENTAL, // 只平移新旧总分之间的学生名次
+        ASYNC        // 提交后入队，由后台按专业合并后统一重算总分和排名
+    }
+
+    @Data
+    public static class Index {
+        // 启用后名次查询走内存索引，student_rank 列经重算队列异步写回；索引未加载成功时自动回退到 updateMode
+        private boolean enabled = true;
+        // 定期从数据库全量重建索引的间隔（毫秒），用于同步其他实例的修改，0 表示不定期重建
+        private long reloadIntervalMs = 300000;
+        // 检查索引的间隔（毫秒）：未就绪时按此间隔重试加载，已就绪时检查是否到了重建时间
+        private long checkIntervalMs = 30000;
+    }
+
+    @Data
+    public static class Queue {
+        // 同一专业最后一次入队后等待的时间（毫秒），期间的重复事件合并为一次重算
+        private long debounceMs = 500;
+        // 专业持续有事件入队时，距第一次入队的最长等待时间（毫秒）
+        private long maxDelayMs = 5000;
+        // 后台检查队列的间隔（毫秒）
+        private long pollIntervalMs = 200;
+    }
+
+    @Data
+    public static class Nightly {
+        // 触发时间（cron），设为 "-" 关闭定时执行，仍可通过 /ranking/job/run 手动触发
+        private String cron = "0 30 2 * * *";
+        // 运行锁租约（秒），总分阶段每提交一批、排名阶段每完成一个专业续约一次；持有者崩溃后租约到期，其他实例可接手并从检查点续跑
+        private int leaseSeconds = 900;
+    }
+}
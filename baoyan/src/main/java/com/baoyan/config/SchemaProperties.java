@@ -0,0 +1,19 @@
+package com.baoyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 表结构相关配置（baoyan.schema.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "baoyan.schema")
+public class SchemaProperties {
+
+    /**
+     * 启动后是否检查热点查询依赖的索引，缺失时输出告警
+     */
+    private boolean indexCheckEnabled = true;
+}
@@ -0,0 +1,24 @@
+package com.baoyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计相关配置（baoyan.stats.*）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "baoyan.stats")
+public class StatsProperties {
+
+    /**
+     * 是否用内存计数器提供统计数据，关闭时每次请求查询数据库
+     */
+    private boolean countersEnabled = true;
+
+    /**
+     * 内存计数器与数据库对账的间隔（毫秒）
+     */
+    private long reconcileIntervalMs = 300000;
+}
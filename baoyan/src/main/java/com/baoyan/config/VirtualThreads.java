@@ -0,0 +1,55 @@
+package com.baoyan.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 通过反射使用 JDK 21 的虚拟线程 API，项目仍按 Java 17 编译，在低版本 JDK 上 isSupported() 返回 false
+ */
+public final class VirtualThreads {
+
+    private static final boolean SUPPORTED = detect();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器
+     */
+    public static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前 JDK 不支持虚拟线程", e);
+        }
+    }
+
+    /**
+     * 创建虚拟线程的工厂，线程名为 prefix 加递增序号
+     */
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前 JDK 不支持虚拟线程", e);
+        }
+    }
+
+    private static boolean detect() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            return ofVirtual != null;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.baoyan.controller;
 
 import com.baoyan.entity.Admin;
+import com.baoyan.entity.ScoreItem;
 import com.baoyan.service.AdminService;
+import com.baoyan.service.CountCache;
+import com.baoyan.service.EntityCache;
+import com.baoyan.service.ScoreItemService;
+import com.baoyan.service.SystemStatsService;
+import com.baoyan.vo.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +27,21 @@ public class AdminController {
     @Resource
     private AdminService adminService;
 
+    @Resource
+    private ScoreItemService scoreItemService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private CountCache countCache;
+
+    @Resource
+    private EntityCache entityCache;
+
+    @Resource
+    private SystemStatsService systemStatsService;
+
     // ========== 登录相关 ==========
 
     /**
@@ -95,23 +119,36 @@ public class AdminController {
     @GetMapping("/page")
     public ResponseEntity<Map<String, Object>> getAdminsByPage(
             @RequestParam(defaultValue = "1") Integer pageNum,
-            @RequestParam(defaultValue = "10") Integer pageSize) {
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
 
         try {
-            List<Admin> admins = adminService.getAdminsByPage(pageNum, pageSize);
-            Integer total = adminService.countAdmins();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("pageSize", pageSize);
+
+            // 传入 after 参数（首页传空串）时使用游标分页
+            List<Admin> admins;
+            if (after != null) {
+                Page<Admin> page = adminService.getAdminsAfter(after, pageSize);
+                admins = page.getList();
+                response.put("nextCursor", page.getNextCursor());
+            } else {
+                admins = adminService.getAdminsByPage(pageNum, pageSize);
+                response.put("pageNum", pageNum);
+            }
+            if (withTotal) {
+                response.put("total", adminService.countAdmins());
+            }
 
             // 移除密码
             admins.forEach(admin -> admin.setPassword(null));
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
             response.put("data", admins);
-            response.put("total", total);
-            response.put("pageNum", pageNum);
-            response.put("pageSize", pageSize);
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(createErrorResponse("分页查询失败: " + e.getMessage()));
         }
@@ -257,6 +294,65 @@ public class AdminController {
     // 注：学生管理功能已经在StudentController中实现，这里可以添加管理员特有的学生管理功能
     // 比如：批量导入学生、重置学生密码等
 
+    // ========== 加分项目管理 ==========
+
+    /**
+     * 修改加分项目，已通过的项目修改分数后学生总分和排名随之更新
+     */
+    @PutMapping("/score-items/{id}")
+    public ResponseEntity<Map<String, Object>> updateScoreItem(
+            @PathVariable Long id,
+            @RequestBody ScoreItem scoreItem) {
+
+        try {
+            scoreItem.setId(id);
+            if (!scoreItemService.updateItem(scoreItem)) {
+                return ResponseEntity.status(404).body(createErrorResponse("项目不存在"));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "项目更新成功");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("更新项目失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 删除加分项目，已通过的项目删除后学生总分和排名随之更新
+     */
+    @DeleteMapping("/score-items/{id}")
+    public ResponseEntity<Map<String, Object>> deleteScoreItem(@PathVariable Long id) {
+        try {
+            if (!scoreItemService.deleteItem(id)) {
+                return ResponseEntity.status(404).body(createErrorResponse("项目不存在"));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "项目删除成功");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("删除项目失败: " + e.getMessage()));
+        }
+    }
+
+    // ========== 数据导出 ==========
+
+    /**
+     * 流式导出所有加分项目：format=json 输出 JSON 数组，format=ndjson 每行一个项目
+     */
+    @GetMapping("/score-items/stream")
+    public void streamScoreItems(@RequestParam(defaultValue = "json") String format,
+                                 HttpServletResponse response) throws IOException {
+        try (JsonStreamWriter writer = JsonStreamWriter.open(response, objectMapper, format)) {
+            scoreItemService.streamAllItems(writer::write);
+        }
+    }
+
     // ========== 系统统计 ==========
 
     /**
@@ -265,16 +361,8 @@ public class AdminController {
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getSystemStats() {
         try {
-            // 这里可以从各个Service获取统计数据
-            // 暂时返回模拟数据
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalStudents", 150);
-            stats.put("totalTeachers", 20);
-            stats.put("totalAdmins", 3);
-            stats.put("pendingItems", 15);
-            stats.put("approvedItems", 320);
-            stats.put("rejectedItems", 45);
-            stats.put("systemStatus", "正常");
+            // 计数器常驻内存，由写操作维护并定期与数据库对账
+            Map<String, Object> stats = systemStatsService.getSystemStats();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -286,6 +374,22 @@ public class AdminController {
         }
     }
 
+    /**
+     * 获取缓存命中统计
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("count", countCache.stats());
+        stats.put("entity", entityCache.stats());
+        stats.put("studentStats", scoreItemService.studentStatsCacheStats());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", stats);
+        return ResponseEntity.ok(response);
+    }
+
     // ========== 辅助方法 ==========
 
     /**
@@ -0,0 +1,49 @@
+package com.baoyan.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 把记录逐条序列化后直接写入 HTTP 响应，支持 JSON 数组和 NDJSON（每行一个对象）两种格式
+ */
+class JsonStreamWriter implements Closeable {
+
+    static final String FORMAT_NDJSON = "ndjson";
+
+    private final SequenceWriter writer;
+
+    private JsonStreamWriter(SequenceWriter writer) {
+        this.writer = writer;
+    }
+
+    static JsonStreamWriter open(HttpServletResponse response, ObjectMapper objectMapper, String format)
+            throws IOException {
+        response.setCharacterEncoding("UTF-8");
+        if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            response.setContentType("application/x-ndjson");
+            return new JsonStreamWriter(objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(response.getOutputStream()));
+        }
+        response.setContentType("application/json");
+        return new JsonStreamWriter(objectMapper.writer().writeValuesAsArray(response.getOutputStream()));
+    }
+
+    void write(Object value) {
+        try {
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
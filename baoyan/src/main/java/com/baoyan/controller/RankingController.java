@@ -1,6 +1,13 @@
 package com.baoyan.controller;
 
+import com.baoyan.service.RankingJobRunner;
+import com.baoyan.service.RankingIndex;
+import com.baoyan.service.RankingQueue;
 import com.baoyan.service.RankingService;
+import com.baoyan.vo.BatchScoreResult;
+import com.baoyan.vo.Leaderboard;
+import com.baoyan.vo.RankingJobStatus;
+import com.baoyan.vo.RankingResult;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +23,12 @@ public class RankingController {
     @Resource
     private RankingService rankingService;
 
+    @Resource
+    private RankingQueue rankingQueue;
+
+    @Resource
+    private RankingJobRunner rankingJobRunner;
+
     /**
      * 手动触发更新单个学生的总分和排名
      */
@@ -40,11 +53,12 @@ public class RankingController {
     @PostMapping("/update/profession/{profession}")
     public ResponseEntity<Map<String, Object>> updateProfessionRanking(@PathVariable String profession) {
         try {
-            rankingService.updateRankingByProfession(profession);
+            RankingResult result = rankingService.updateRankingByProfession(profession);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "专业排名更新成功");
+            response.put("data", result);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -53,16 +67,17 @@ public class RankingController {
     }
 
     /**
-     * 更新全院所有学生的排名
+     * 逐个专业更新所有学生的排名
      */
     @PostMapping("/update/all")
     public ResponseEntity<Map<String, Object>> updateAllRanking() {
         try {
-            rankingService.updateAllRanking();
+            RankingResult result = rankingService.updateAllRanking();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "全院排名更新成功");
+            response.put("message", "所有专业排名更新成功");
+            response.put("data", result);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -93,17 +108,51 @@ public class RankingController {
         }
     }
 
+    /**
+     * 排在学生前后各 k 名的学生及分差，scope 为 profession（默认）或 college
+     */
+    @GetMapping("/student/{studentId}/neighbors")
+    public ResponseEntity<Map<String, Object>> getStudentNeighbors(
+            @PathVariable String studentId,
+            @RequestParam(defaultValue = "5") Integer k,
+            @RequestParam(defaultValue = "profession") String scope) {
+        if (!"profession".equals(scope) && !"college".equals(scope)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("scope 只能为 profession 或 college"));
+        }
+        try {
+            RankingIndex.Neighbors neighbors = rankingService.getStudentNeighbors(studentId, "college".equals(scope), k);
+
+            Map<String, Object> response = new HashMap<>();
+            if (neighbors != null) {
+                response.put("success", true);
+                response.put("data", neighbors);
+                return ResponseEntity.ok(response);
+            } else {
+                response.put("success", false);
+                response.put("message", "学生不在排名中");
+                return ResponseEntity.status(404).body(response);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("获取相邻排名失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 批量更新所有学生的总分（初始化用）
      */
     @PostMapping("/batch-update-scores")
     public ResponseEntity<Map<String, Object>> batchUpdateAllScores() {
         try {
-            rankingService.batchUpdateAllScores();
+            BatchScoreResult result = rankingService.batchUpdateAllScores();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "批量更新所有学生总分成功");
+            response.put("data", result);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -111,7 +160,114 @@ public class RankingController {
         }
     }
 
+    /**
+     * 专业排行榜前 n 名
+     */
+    @GetMapping("/profession/{profession}/top")
+    public ResponseEntity<Map<String, Object>> getProfessionTop(
+            @PathVariable String profession,
+            @RequestParam(defaultValue = "10") Integer n) {
+        return leaderboardResponse(profession, 0, n);
+    }
+
+    /**
+     * 专业排行榜分页
+     */
+    @GetMapping("/profession/{profession}/leaderboard")
+    public ResponseEntity<Map<String, Object>> getProfessionLeaderboard(
+            @PathVariable String profession,
+            @RequestParam(defaultValue = "1") Integer pageNum,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        if (pageNum < 1) {
+            return ResponseEntity.badRequest().body(createErrorResponse("页码应从 1 开始"));
+        }
+        return leaderboardResponse(profession, (pageNum - 1) * pageSize, pageSize);
+    }
+
+    /**
+     * 全院排行榜前 n 名
+     */
+    @GetMapping("/college/top")
+    public ResponseEntity<Map<String, Object>> getCollegeTop(@RequestParam(defaultValue = "10") Integer n) {
+        return leaderboardResponse(null, 0, n);
+    }
+
+    /**
+     * 全院排行榜分页
+     */
+    @GetMapping("/college/leaderboard")
+    public ResponseEntity<Map<String, Object>> getCollegeLeaderboard(
+            @RequestParam(defaultValue = "1") Integer pageNum,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        if (pageNum < 1) {
+            return ResponseEntity.badRequest().body(createErrorResponse("页码应从 1 开始"));
+        }
+        return leaderboardResponse(null, (pageNum - 1) * pageSize, pageSize);
+    }
+
+    /**
+     * 排名重算队列状态：队列深度、最早事件等待时间等
+     */
+    @GetMapping("/queue/stats")
+    public ResponseEntity<Map<String, Object>> getQueueStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", rankingQueue.stats());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 定时全量重算的状态：最近一次运行时间、耗时、写回行数和进度
+     */
+    @GetMapping("/job/status")
+    public ResponseEntity<Map<String, Object>> getJobStatus() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", rankingJobRunner.getStatus());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("获取任务状态失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即执行一次全量重算（与定时执行共用运行锁）
+     */
+    @PostMapping("/job/run")
+    public ResponseEntity<Map<String, Object>> runJob() {
+        try {
+            RankingJobStatus status = rankingJobRunner.run();
+            if (status == null) {
+                return ResponseEntity.status(409).body(createErrorResponse("排名任务正在执行，请稍后查看状态"));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "全量重算完成");
+            response.put("data", status);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("全量重算失败: " + e.getMessage()));
+        }
+    }
+
     // 辅助方法
+    private ResponseEntity<Map<String, Object>> leaderboardResponse(String profession, int offset, int limit) {
+        try {
+            Leaderboard leaderboard = rankingService.getLeaderboard(profession, offset, limit);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", leaderboard);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("获取排行榜失败: " + e.getMessage()));
+        }
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
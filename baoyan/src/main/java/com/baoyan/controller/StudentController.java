@@ -3,12 +3,23 @@ package com.baoyan.controller;
 import com.baoyan.entity.Student;
 import com.baoyan.entity.ScoreItem;
 import com.baoyan.mapper.StudentMapper;
+import com.baoyan.service.CountCache;
+import com.baoyan.service.EntityCache;
+import com.baoyan.service.RankingService;
 import com.baoyan.service.ScoreItemService;
+import com.baoyan.service.StudentService;
 import com.baoyan.vo.Page;
+import com.baoyan.vo.ScoreItemSummary;
+import com.baoyan.vo.StudentItemStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,16 +35,42 @@ public class StudentController {
     @Resource
     private ScoreItemService scoreItemService;  // 新增：加分项目服务
 
+    @Resource
+    private RankingService rankingService;
+
+    @Resource
+    private StudentService studentService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private CountCache countCache;
+
+    @Resource
+    private EntityCache entityCache;
+
     // 查询所有学生
     @GetMapping
     public List<Student> getStudent() {
         return studentMapper.findAll();
     }
 
+    // 流式查询所有学生：format=json 输出 JSON 数组，format=ndjson 每行一个学生
+    @GetMapping("/stream")
+    public void streamStudents(@RequestParam(defaultValue = "json") String format,
+                               HttpServletResponse response) throws IOException {
+        try (JsonStreamWriter writer = JsonStreamWriter.open(response, objectMapper, format)) {
+            studentService.streamAll(writer::write);
+        }
+    }
+
     // 创建学生
     @PostMapping
     public String postStudent(@RequestBody Student student) {
         studentMapper.save(student);
+        countCache.adjust(CountCache.STUDENTS, 1);
+        rankingService.syncStudent(student.getId());
         return "success";
     }
 
@@ -41,13 +78,18 @@ public class StudentController {
     @PutMapping
     public String updateStudent(@RequestBody Student student) {
         studentMapper.updateByid(student);
+        entityCache.evictStudent(student.getId());
+        rankingService.syncStudent(student.getId());
         return "success";
     }
 
     // 根据id删除学生
     @DeleteMapping("/{id}")
     public String deleteStudent(@PathVariable("id") String id) {  // 修改方法名更准确
-        studentMapper.deleteByid(id);
+        int rows = studentMapper.deleteByid(id);
+        entityCache.evictStudent(id);
+        countCache.adjust(CountCache.STUDENTS, -rows);
+        rankingService.removeStudent(id);
         return "success";
     }
 
@@ -58,18 +100,32 @@ public class StudentController {
     }
 
     // 分页查询学生
+    // 传入 after 参数（首页传空串）时使用游标分页，返回 nextCursor 作为下一页的 after；withTotal=false 时不统计总数
     @GetMapping("/page")
     public Page<Student> findByPage(@RequestParam(defaultValue = "1") Integer pageNum,
-                                    @RequestParam(defaultValue = "10") Integer pageSize) {
-
-        Integer offset = (pageNum - 1) * pageSize;
-        List<Student> studentData = studentMapper.findByPage(offset, pageSize);
-        Page<Student> page = new Page<>();
-        page.setList(studentData);
-        page.setPageNum(pageNum);
-        Integer total = studentMapper.countStudents(); // 使用countStudents方法更高效
-        page.setTotal(total);
-        page.setPageSize(pageSize);
+                                    @RequestParam(defaultValue = "10") Integer pageSize,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "true") boolean withTotal) {
+
+        Page<Student> page;
+        if (after != null) {
+            try {
+                page = studentService.getStudentsAfter(after, pageSize);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        } else {
+            Integer offset = (pageNum - 1) * pageSize;
+            List<Student> studentData = studentMapper.findByPage(offset, pageSize);
+            page = new Page<>();
+            page.setList(studentData);
+            page.setPageNum(pageNum);
+            page.setPageSize(pageSize);
+        }
+        if (withTotal) {
+            Integer total = countCache.get(CountCache.STUDENTS, studentMapper::countStudents); // 总数走缓存
+            page.setTotal(total);
+        }
         return page;
     }
 
@@ -82,7 +138,7 @@ public class StudentController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            Student student = studentMapper.findByid(id);
+            Student student = entityCache.getStudent(id);
 
             if (student != null) {
                 if (student.getPassword().equals(password)) {
@@ -124,7 +180,7 @@ public class StudentController {
             }
             if (scoreItem.getStudentName() == null || scoreItem.getStudentName().trim().isEmpty()) {
                 // 如果前端没有传递学生姓名，从数据库查询
-                Student student = studentMapper.findByid(scoreItem.getStudentId());
+                Student student = entityCache.getStudent(scoreItem.getStudentId());
                 if (student != null) {
                     scoreItem.setStudentName(student.getName());
                 } else {
@@ -168,7 +224,7 @@ public class StudentController {
     @GetMapping("/{studentId}/score-items")
     public ResponseEntity<Map<String, Object>> getStudentScoreItems(@PathVariable String studentId) {
         try {
-            List<ScoreItem> items = scoreItemService.getStudentItems(studentId);
+            List<ScoreItemSummary> items = scoreItemService.getStudentItems(studentId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -194,7 +250,7 @@ public class StudentController {
                 return ResponseEntity.badRequest().body(createErrorResponse("无效的状态值"));
             }
 
-            List<ScoreItem> items = scoreItemService.getStudentItemsByStatus(studentId, status);
+            List<ScoreItemSummary> items = scoreItemService.getStudentItemsByStatus(studentId, status);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -262,25 +318,18 @@ public class StudentController {
     @GetMapping("/{studentId}/stats")
     public ResponseEntity<Map<String, Object>> getStudentStats(@PathVariable String studentId) {
         try {
-            List<ScoreItem> allItems = scoreItemService.getStudentItems(studentId);
-
-            long pendingCount = allItems.stream().filter(item -> item.isPending()).count();
-            long approvedCount = allItems.stream().filter(item -> item.isApproved()).count();
-            long rejectedCount = allItems.stream().filter(item -> item.isRejected()).count();
-
-            // 计算总分（只计算已通过的项目）
-            double totalScore = allItems.stream()
-                    .filter(item -> item.isApproved())
-                    .mapToDouble(item -> item.getItemScore().doubleValue())
-                    .sum();
+            // 数据库聚合统计（带缓存），不再加载全部项目
+            StudentItemStats itemStats = scoreItemService.getStudentStats(studentId);
+            int totalItems = itemStats.getTotalItems();
+            int approvedCount = itemStats.getApprovedCount();
 
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalItems", allItems.size());
-            stats.put("pendingCount", pendingCount);
+            stats.put("totalItems", totalItems);
+            stats.put("pendingCount", itemStats.getPendingCount());
             stats.put("approvedCount", approvedCount);
-            stats.put("rejectedCount", rejectedCount);
-            stats.put("totalScore", totalScore);
-            stats.put("approvalRate", allItems.size() > 0 ? (double) approvedCount / allItems.size() * 100 : 0);
+            stats.put("rejectedCount", itemStats.getRejectedCount());
+            stats.put("totalScore", itemStats.getApprovedScore().doubleValue()); // 只计算已通过的项目
+            stats.put("approvalRate", totalItems > 0 ? (double) approvedCount / totalItems * 100 : 0);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
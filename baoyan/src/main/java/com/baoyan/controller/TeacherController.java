@@ -1,7 +1,14 @@
 package com.baoyan.controller;
 
 import com.baoyan.entity.ScoreItem;
+import com.baoyan.entity.Teacher;
 import com.baoyan.service.ScoreItemService;
+import com.baoyan.service.TeacherService;
+import com.baoyan.vo.BatchAuditRequest;
+import com.baoyan.vo.BatchAuditResult;
+import com.baoyan.vo.Page;
+import com.baoyan.vo.ScoreItemSummary;
+import com.baoyan.vo.TeacherAuditStats;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +26,9 @@ public class TeacherController {
     @Resource
     private ScoreItemService scoreItemService;
 
+    @Resource
+    private TeacherService teacherService;
+
     // ========== 待审核项目管理 ==========
 
     /**
@@ -27,20 +37,31 @@ public class TeacherController {
     @GetMapping("/pending-items")
     public ResponseEntity<Map<String, Object>> getPendingItems(
             @RequestParam(defaultValue = "1") Integer pageNum,
-            @RequestParam(defaultValue = "10") Integer pageSize) {
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
 
         try {
-            List<ScoreItem> items = scoreItemService.getPendingItemsByPage(pageNum, pageSize);
-            Integer total = scoreItemService.countPendingItems();
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", items);
-            response.put("total", total);
-            response.put("pageNum", pageNum);
             response.put("pageSize", pageSize);
 
+            // 传入 after 参数（首页传空串）时使用游标分页，深翻页与首页代价相同
+            if (after != null) {
+                Page<ScoreItemSummary> page = scoreItemService.getPendingItemsAfter(after, pageSize);
+                response.put("data", page.getList());
+                response.put("nextCursor", page.getNextCursor());
+            } else {
+                response.put("data", scoreItemService.getPendingItemsByPage(pageNum, pageSize));
+                response.put("pageNum", pageNum);
+            }
+            if (withTotal) {
+                response.put("total", scoreItemService.countPendingItems());
+            }
+
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(createErrorResponse("获取待审核列表失败: " + e.getMessage()));
         }
@@ -52,7 +73,7 @@ public class TeacherController {
     @GetMapping("/pending-items/all")
     public ResponseEntity<Map<String, Object>> getAllPendingItems() {
         try {
-            List<ScoreItem> items = scoreItemService.getPendingItems();
+            List<ScoreItemSummary> items = scoreItemService.getPendingItems();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -75,7 +96,7 @@ public class TeacherController {
             @RequestParam String teacherId) {
 
         try {
-            List<ScoreItem> items = scoreItemService.getProcessedItemsByTeacher(teacherId);
+            List<ScoreItemSummary> items = scoreItemService.getProcessedItemsByTeacher(teacherId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -173,6 +194,35 @@ public class TeacherController {
         }
     }
 
+    /**
+     * 批量审核：items 中每项为 {id, action: approve|reject, note}，驳回时 note 为驳回原因
+     */
+    @PostMapping("/batch-audit")
+    public ResponseEntity<Map<String, Object>> batchAudit(@RequestBody BatchAuditRequest request) {
+        try {
+            // 参数验证
+            if (request.getTeacherId() == null || request.getTeacherId().trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(createErrorResponse("教师ID不能为空"));
+            }
+            if (request.getTeacherName() == null || request.getTeacherName().trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(createErrorResponse("教师姓名不能为空"));
+            }
+
+            BatchAuditResult result = scoreItemService.batchAudit(
+                    request.getTeacherId(), request.getTeacherName(), request.getItems());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "批量审核完成");
+            response.put("data", result);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("批量审核失败: " + e.getMessage()));
+        }
+    }
+
     // ========== 项目详情 ==========
 
     /**
@@ -206,7 +256,7 @@ public class TeacherController {
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getTeacherStats(@RequestParam String teacherId) {
         try {
-            ScoreItemService.TeacherAuditStats stats = scoreItemService.getTeacherStats(teacherId);
+            TeacherAuditStats stats = scoreItemService.getTeacherStats(teacherId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -272,6 +322,46 @@ public class TeacherController {
         }
     }
 
+    /**
+     * 分页查询教师，传入 after 参数时使用游标分页
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getTeachersByPage(
+            @RequestParam(defaultValue = "1") Integer pageNum,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("pageSize", pageSize);
+
+            List<Teacher> teachers;
+            if (after != null) {
+                Page<Teacher> page = teacherService.getTeachersAfter(after, pageSize);
+                teachers = page.getList();
+                response.put("nextCursor", page.getNextCursor());
+            } else {
+                teachers = teacherService.getTeachersByPage(pageNum, pageSize);
+                response.put("pageNum", pageNum);
+            }
+            if (withTotal) {
+                response.put("total", teacherService.countTeachers());
+            }
+
+            // 移除密码
+            teachers.forEach(teacher -> teacher.setPassword(null));
+            response.put("data", teachers);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(createErrorResponse("分页查询失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 获取所有教师列表
      */
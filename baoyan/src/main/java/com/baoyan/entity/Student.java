@@ -14,6 +14,7 @@ public class Student {
     private String phone;
     private String picture;
     private BigDecimal baseScore;      // 基础分
+    private BigDecimal approvedScore;  // 通过审核的加分之和，随项目状态变化按差值维护
     private BigDecimal totalScore;     // 总分
     private Integer studentRank;
     private String className;
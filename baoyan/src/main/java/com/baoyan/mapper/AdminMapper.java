@@ -47,12 +47,18 @@ public interface AdminMapper {
 
     // 删除管理员
     @Delete("DELETE FROM admin WHERE id = #{id}")
-    void deleteById(Integer id);
+    int deleteById(Integer id);
 
     // 分页查询
     @Select("SELECT * FROM admin LIMIT #{offset}, #{pageSize}")
     List<Admin> findByPage(@Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
 
+    // 游标分页
+    @Select("<script>SELECT * FROM admin " +
+            "<if test='afterId != null'>WHERE id &gt; #{afterId} </if>" +
+            "ORDER BY id LIMIT #{pageSize}</script>")
+    List<Admin> findAfter(@Param("afterId") Integer afterId, @Param("pageSize") Integer pageSize);
+
     // 查询管理员总数
     @Select("SELECT COUNT(*) FROM admin")
     Integer countAdmins();
@@ -0,0 +1,53 @@
+package com.baoyan.mapper;
+
+import com.baoyan.vo.RankingJobStatus;
+import org.apache.ibatis.annotations.*;
+
+@Mapper
+public interface RankingJobMapper {
+
+    @Select("SELECT * FROM ranking_job WHERE job_name = #{jobName}")
+    RankingJobStatus findByName(@Param("jobName") String jobName);
+
+    // 抢占运行锁：只有锁空闲或租约已过期时才能更新成功，多实例同时抢占时只有一个返回 1
+    @Update("UPDATE ranking_job SET lock_owner = #{owner}, " +
+            "locked_until = TIMESTAMPADD(SECOND, #{leaseSeconds}, NOW()), updated_at = NOW() " +
+            "WHERE job_name = #{jobName} AND (lock_owner IS NULL OR locked_until IS NULL OR locked_until < NOW())")
+    int tryAcquire(@Param("jobName") String jobName,
+                   @Param("owner") String owner,
+                   @Param("leaseSeconds") int leaseSeconds);
+
+    // 开始新的一次运行，清空上次的进度
+    @Update("UPDATE ranking_job SET status = 'RUNNING', phase = 'SCORES', started_at = NOW(), " +
+            "finished_at = NULL, duration_ms = NULL, students_scanned = 0, rows_changed = 0, " +
+            "professions_total = 0, professions_done = 0, last_profession = NULL, attempts = 1, " +
+            "error_message = NULL, updated_at = NOW() " +
+            "WHERE job_name = #{jobName} AND lock_owner = #{owner}")
+    int start(@Param("jobName") String jobName, @Param("owner") String owner);
+
+    // 接手崩溃实例留下的运行，保留检查点
+    @Update("UPDATE ranking_job SET attempts = COALESCE(attempts, 0) + 1, error_message = NULL, updated_at = NOW() " +
+            "WHERE job_name = #{jobName} AND lock_owner = #{owner}")
+    int resume(@Param("jobName") String jobName, @Param("owner") String owner);
+
+    // 记录进度并续约，返回 0 表示运行锁已被其他实例接手
+    @Update("UPDATE ranking_job SET phase = #{p.phase}, students_scanned = #{p.studentsScanned}, " +
+            "rows_changed = #{p.rowsChanged}, professions_total = #{p.professionsTotal}, " +
+            "professions_done = #{p.professionsDone}, last_profession = #{p.lastProfession}, " +
+            "locked_until = TIMESTAMPADD(SECOND, #{leaseSeconds}, NOW()), updated_at = NOW() " +
+            "WHERE job_name = #{jobName} AND lock_owner = #{owner}")
+    int checkpoint(@Param("jobName") String jobName,
+                   @Param("owner") String owner,
+                   @Param("leaseSeconds") int leaseSeconds,
+                   @Param("p") RankingJobStatus progress);
+
+    // 结束运行并释放锁
+    @Update("UPDATE ranking_job SET status = #{status}, finished_at = NOW(), duration_ms = #{durationMs}, " +
+            "error_message = #{errorMessage}, lock_owner = NULL, locked_until = NULL, updated_at = NOW() " +
+            "WHERE job_name = #{jobName} AND lock_owner = #{owner}")
+    int finish(@Param("jobName") String jobName,
+               @Param("owner") String owner,
+               @Param("status") String status,
+               @Param("durationMs") long durationMs,
+               @Param("errorMessage") String errorMessage);
+}
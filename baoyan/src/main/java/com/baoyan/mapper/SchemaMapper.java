@@ -0,0 +1,16 @@
+package com.baoyan.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+@Mapper
+public interface SchemaMapper {
+
+    // 当前库中已有的索引名（按表）
+    @Select("SELECT DISTINCT LOWER(table_name) AS table_name, LOWER(index_name) AS index_name " +
+            "FROM information_schema.statistics WHERE table_schema = DATABASE()")
+    List<Map<String, Object>> findIndexes();
+}
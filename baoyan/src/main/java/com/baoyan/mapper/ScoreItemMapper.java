@@ -1,15 +1,29 @@
 package com.baoyan.mapper;
 
 import com.baoyan.entity.ScoreItem;
+import com.baoyan.vo.ScoreItemSummary;
+import com.baoyan.vo.StudentItemStats;
+import com.baoyan.vo.StudentRank;
+import com.baoyan.vo.TeacherAuditStats;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 @Mapper
 public interface ScoreItemMapper {
 
+    // 列表查询只取 ScoreItemSummary 的字段，不读取描述和证明材料
+    String SUMMARY_COLUMNS = "id, student_id, student_name, item_name, item_category, item_score, " +
+            "status, reject_reason, create_time, audit_time, auditor_name, resubmit_count";
+
+    // 老师审核列表还要展示项目描述、审核备注和更新时间，仍不读取证明材料
+    String REVIEW_COLUMNS = SUMMARY_COLUMNS + ", item_description, audit_note, update_time";
+
     // ========== 基础CRUD操作 ==========
 
     @Insert("INSERT INTO score_item (" +
@@ -24,6 +38,21 @@ public interface ScoreItemMapper {
     @Select("SELECT * FROM score_item WHERE id = #{id}")
     ScoreItem findById(Long id);
 
+    // 写事务内加锁读取，读到最新提交的状态和分数，直到事务结束其他审核无法修改
+    @Select("SELECT * FROM score_item WHERE id = #{id} FOR UPDATE")
+    ScoreItem findByIdForUpdate(Long id);
+
+    @Select("<script>SELECT * FROM score_item WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<ScoreItem> findByIds(@Param("ids") Collection<Long> ids);
+
+    // 批量审核事务内按 id 顺序加锁读取，并发的批量审核以相同顺序加锁，不会互相等待成环
+    @Select("<script>SELECT * FROM score_item WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY id FOR UPDATE</script>")
+    List<ScoreItem> findByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
     @Update("UPDATE score_item SET " +
             "item_name = #{itemName}, " +
             "item_category = #{itemCategory}, " +
@@ -40,17 +69,28 @@ public interface ScoreItemMapper {
 
     // ========== 老师端审核功能 ==========
 
-    @Select("SELECT * FROM score_item WHERE status = 0 ORDER BY create_time DESC")
-    List<ScoreItem> findPendingItems();
+    @Select("SELECT " + REVIEW_COLUMNS + " FROM score_item WHERE status = 0 ORDER BY create_time DESC")
+    List<ScoreItemSummary> findPendingItems();
 
-    @Select("SELECT * FROM score_item WHERE status = 0 ORDER BY create_time DESC LIMIT #{offset}, #{pageSize}")
-    List<ScoreItem> findPendingItemsByPage(@Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
+    @Select("SELECT " + REVIEW_COLUMNS + " FROM score_item WHERE status = 0 ORDER BY create_time DESC LIMIT #{offset}, #{pageSize}")
+    List<ScoreItemSummary> findPendingItemsByPage(@Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
+
+    // 游标分页：按 (create_time, id) 降序取上一页最后一条之后的 pageSize 条
+    @Select("<script>SELECT " + REVIEW_COLUMNS + " FROM score_item WHERE status = 0 " +
+            "<if test='afterTime != null'>" +
+            "AND (create_time &lt; #{afterTime} OR (create_time = #{afterTime} AND id &lt; #{afterId})) " +
+            "</if>" +
+            "ORDER BY create_time DESC, id DESC LIMIT #{pageSize}</script>")
+    List<ScoreItemSummary> findPendingItemsAfter(@Param("afterTime") LocalDateTime afterTime,
+                                          @Param("afterId") Long afterId,
+                                          @Param("pageSize") Integer pageSize);
 
     @Select("SELECT COUNT(*) FROM score_item WHERE status = 0")
     Integer countPendingItems();
 
-    @Select("SELECT * FROM score_item WHERE auditor_id = #{teacherId} AND status IN (1, 2) ORDER BY audit_time DESC")
-    List<ScoreItem> findProcessedItemsByTeacher(@Param("teacherId") String teacherId);
+    @Select("SELECT " + REVIEW_COLUMNS + " FROM score_item " +
+            "WHERE auditor_id = #{teacherId} AND status IN (1, 2) ORDER BY audit_time DESC")
+    List<ScoreItemSummary> findProcessedItemsByTeacher(@Param("teacherId") String teacherId);
 
     @Update("UPDATE score_item SET " +
             "status = 1, " +
@@ -82,11 +122,12 @@ public interface ScoreItemMapper {
 
     // ========== 学生端查询功能 ==========
 
-    @Select("SELECT * FROM score_item WHERE student_id = #{studentId} ORDER BY create_time DESC")
-    List<ScoreItem> findByStudentId(@Param("studentId") String studentId);
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM score_item WHERE student_id = #{studentId} ORDER BY create_time DESC")
+    List<ScoreItemSummary> findByStudentId(@Param("studentId") String studentId);
 
-    @Select("SELECT * FROM score_item WHERE student_id = #{studentId} AND status = #{status} ORDER BY create_time DESC")
-    List<ScoreItem> findByStudentIdAndStatus(@Param("studentId") String studentId, @Param("status") Integer status);
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM score_item " +
+            "WHERE student_id = #{studentId} AND status = #{status} ORDER BY create_time DESC")
+    List<ScoreItemSummary> findByStudentIdAndStatus(@Param("studentId") String studentId, @Param("status") Integer status);
 
     @Update("UPDATE score_item SET " +
             "status = 0, " +
@@ -97,40 +138,124 @@ public interface ScoreItemMapper {
 
     // ========== 统计功能 ==========
 
-    @Select("SELECT COUNT(*) FROM score_item WHERE auditor_id = #{teacherId} AND status = 1")
-    Integer countApprovedByTeacher(@Param("teacherId") String teacherId);
-
-    @Select("SELECT COUNT(*) FROM score_item WHERE auditor_id = #{teacherId} AND status = 2")
-    Integer countRejectedByTeacher(@Param("teacherId") String teacherId);
-
-    @Select("SELECT COUNT(*) FROM score_item WHERE status = 0")
-    Integer countAllPending();
-
-    @Select("SELECT COUNT(*) FROM score_item WHERE status = 1")
-    Integer countAllApproved();
+    // 学生项目统计：一次查询得到各状态数量和已通过分数之和
+    @Select("SELECT COUNT(*) AS total_items, " +
+            "COALESCE(SUM(CASE WHEN status = 0 THEN 1 ELSE 0 END), 0) AS pending_count, " +
+            "COALESCE(SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END), 0) AS approved_count, " +
+            "COALESCE(SUM(CASE WHEN status = 2 THEN 1 ELSE 0 END), 0) AS rejected_count, " +
+            "COALESCE(SUM(CASE WHEN status = 1 THEN item_score ELSE 0 END), 0) AS approved_score " +
+            "FROM score_item WHERE student_id = #{studentId}")
+    StudentItemStats getStudentItemStats(@Param("studentId") String studentId);
+
+    // 老师审核统计：一次查询得到全局待审核数量和该老师的通过/驳回数量
+    @Select("SELECT " +
+            "COALESCE(SUM(CASE WHEN status = 0 THEN 1 ELSE 0 END), 0) AS pending_count, " +
+            "COALESCE(SUM(CASE WHEN status = 1 AND auditor_id = #{teacherId} THEN 1 ELSE 0 END), 0) AS approved_count, " +
+            "COALESCE(SUM(CASE WHEN status = 2 AND auditor_id = #{teacherId} THEN 1 ELSE 0 END), 0) AS rejected_count " +
+            "FROM score_item")
+    TeacherAuditStats getTeacherAuditStats(@Param("teacherId") String teacherId);
+
+    // 按审核人和状态分组计数，用于初始化内存审核统计
+    @Select("SELECT auditor_id, status, COUNT(*) AS cnt FROM score_item GROUP BY auditor_id, status")
+    List<Map<String, Object>> countItemsGroupByAuditorAndStatus();
 
     // ========== 分数计算和排名功能 ==========
 
-    @Select("SELECT COALESCE(SUM(item_score), 0) FROM score_item " +
-            "WHERE student_id = #{studentId} AND status = 1")
-    BigDecimal sumApprovedScoreByStudent(@Param("studentId") String studentId);
-
-    @Update("UPDATE student SET " +
-            "total_score = #{totalScore}, " +
-            "student_rank = #{rank}, " +  // 已修改为student_rank
-            "updated_time = NOW() " +
+    // 批量写回名次：一条 CASE 语句更新多行，只传入名次发生变化的学生
+    @Update("<script>" +
+            "UPDATE student SET student_rank = CASE id " +
+            "<foreach collection='ranks' item='r'>WHEN #{r.studentId} THEN #{r.rank} </foreach>" +
+            "END, updated_time = NOW() " +
+            "WHERE id IN " +
+            "<foreach collection='ranks' item='r' open='(' separator=',' close=')'>#{r.studentId}</foreach>" +
+            "</script>")
+    int batchUpdateStudentRank(@Param("ranks") List<StudentRank> ranks);
+
+    // 一次分组查询得到所有学生通过审核的加分总和
+    @Select("SELECT student_id, SUM(item_score) AS approved_score FROM score_item " +
+            "WHERE status = 1 GROUP BY student_id")
+    List<Map<String, Object>> sumApprovedScoreGroupByStudent();
+
+    @Select("SELECT id, base_score, approved_score, total_score FROM student")
+    List<Map<String, Object>> getStudentBaseScores();
+
+    @Update("UPDATE student SET total_score = #{totalScore}, updated_time = NOW() WHERE id = #{studentId}")
+    int updateStudentTotalScore(@Param("studentId") String studentId,
+                                @Param("totalScore") BigDecimal totalScore);
+
+    // 项目进入或离开通过状态时按差值调整物化的加分总和，代替每次 SUM 全部通过项目
+    @Update("UPDATE student SET approved_score = COALESCE(approved_score, 0) + #{delta}, updated_time = NOW() " +
             "WHERE id = #{studentId}")
-    int updateStudentRank(@Param("studentId") String studentId,
-                          @Param("totalScore") BigDecimal totalScore,
-                          @Param("rank") Integer rank);
+    int addApprovedScore(@Param("studentId") String studentId, @Param("delta") BigDecimal delta);
 
+    // 按实际加分修复物化值和总分
+    @Update("UPDATE student SET approved_score = #{approvedScore}, total_score = #{totalScore}, updated_time = NOW() " +
+            "WHERE id = #{studentId}")
+    int updateStudentScores(@Param("studentId") String studentId,
+                            @Param("approvedScore") BigDecimal approvedScore,
+                            @Param("totalScore") BigDecimal totalScore);
+
+    // 物化加分与实际通过项目之和不一致的学生（总分由排名流程维护，不在此核对）
+    @Select("SELECT s.id, s.approved_score, COALESCE(a.approved_score, 0) AS actual_approved_score " +
+            "FROM student s LEFT JOIN (" +
+            "SELECT student_id, SUM(item_score) AS approved_score FROM score_item WHERE status = 1 GROUP BY student_id" +
+            ") a ON a.student_id = s.id " +
+            "WHERE COALESCE(s.approved_score, 0) <> COALESCE(a.approved_score, 0)")
+    List<Map<String, Object>> findScoreDrift();
+
+    // 按实际通过项目之和修复物化加分，只在 approved_score 仍为核对时读到的值时生效，
+    // 期间被审核按差值调整过的学生不会被覆盖
+    @Update("UPDATE student SET approved_score = (" +
+            "SELECT COALESCE(SUM(item_score), 0) FROM score_item WHERE student_id = #{studentId} AND status = 1" +
+            "), updated_time = NOW() " +
+            "WHERE id = #{studentId} AND (approved_score = #{observed,jdbcType=DECIMAL} " +
+            "OR (approved_score IS NULL AND #{observed,jdbcType=DECIMAL} IS NULL))")
+    int repairApprovedScore(@Param("studentId") String studentId, @Param("observed") BigDecimal observed);
+
+    // 增量排名：总分落在 [lowScore, highScore) 区间内的同专业学生名次整体平移 delta
+    @Update("UPDATE student SET student_rank = student_rank + #{delta}, updated_time = NOW() " +
+            "WHERE profession = #{profession} AND status = 1 AND id <> #{excludeId} " +
+            "AND total_score >= #{lowScore} AND total_score < #{highScore}")
+    int shiftRanksInProfession(@Param("profession") String profession,
+                               @Param("excludeId") String excludeId,
+                               @Param("lowScore") BigDecimal lowScore,
+                               @Param("highScore") BigDecimal highScore,
+                               @Param("delta") int delta);
+
+    // 锁住某个专业所有参与排名的学生行：同一专业的名次写回（重排、增量平移）在持有此锁的事务中依次执行
+    @Select("SELECT id FROM student WHERE profession = #{profession} AND status = 1 FOR UPDATE")
+    List<String> lockProfession(@Param("profession") String profession);
+
+    // 加锁读取：与 lockProfession 锁住相同的行，读到的总分和名次在本事务结束前不会被其他名次写回修改
     @Select("SELECT id, total_score, student_rank FROM student " +  // 已修改为student_rank
             "WHERE profession = #{profession} AND status = 1 " +
-            "ORDER BY total_score DESC")
+            "ORDER BY total_score DESC FOR UPDATE")
     List<Map<String, Object>> getStudentScoresByProfession(@Param("profession") String profession);
 
-    @Select("SELECT id, total_score, student_rank FROM student WHERE status = 1 ORDER BY total_score DESC")  // 已修改为student_rank
-    List<Map<String, Object>> getAllStudentScores();
+    // 排行榜分页（内存索引未就绪时使用），profession 为空时为全院，顺序与内存索引一致；总分为空的学生不参与排名
+    @Select("<script>SELECT id, name, profession, total_score FROM student WHERE status = 1 AND total_score IS NOT NULL " +
+            "<if test='profession != null'>AND profession = #{profession} </if>" +
+            "ORDER BY total_score DESC, id LIMIT #{offset}, #{limit}</script>")
+    List<Map<String, Object>> getLeaderboardPage(@Param("profession") String profession,
+                                                 @Param("offset") int offset,
+                                                 @Param("limit") int limit);
+
+    @Select("<script>SELECT COUNT(*) FROM student WHERE status = 1 AND total_score IS NOT NULL" +
+            "<if test='profession != null'> AND profession = #{profession}</if></script>")
+    Integer countRankedStudents(@Param("profession") String profession);
+
+    // 总分严格高于给定分数的人数 + 1，profession 为空时为全院名次
+    @Select("<script>SELECT COUNT(*) + 1 FROM student WHERE status = 1 AND total_score &gt; #{totalScore}" +
+            "<if test='profession != null'> AND profession = #{profession}</if></script>")
+    Integer rankOfScore(@Param("profession") String profession, @Param("totalScore") BigDecimal totalScore);
+
+    // 有学生参与排名的专业
+    @Select("SELECT DISTINCT profession FROM student WHERE status = 1 AND profession IS NOT NULL")
+    List<String> getRankedProfessions();
+
+    // 加载内存排名索引：所有参与排名的学生（总分为空的不参与，与数据库分页和名次查询一致）
+    @Select("SELECT id, name, profession, total_score FROM student WHERE status = 1 AND total_score IS NOT NULL")
+    List<Map<String, Object>> getRankedStudents();
 
     // 修复这个方法 - 移除错误的AS语法
     @Select("SELECT s.id, s.name, s.profession, " +
@@ -147,8 +272,13 @@ public interface ScoreItemMapper {
 
     // ========== 管理员功能 ==========
 
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM score_item ORDER BY create_time DESC")
+    List<ScoreItemSummary> findAllItems();
+
+    // 流式读取所有加分项目，用于导出
     @Select("SELECT * FROM score_item ORDER BY create_time DESC")
-    List<ScoreItem> findAllItems();
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<ScoreItem> streamAllItems();
 
     @Select("SELECT * FROM score_item " +
             "WHERE create_time BETWEEN #{startTime} AND #{endTime} " +
@@ -3,8 +3,10 @@ package com.baoyan.mapper;
 import com.baoyan.entity.Student;
 import com.baoyan.vo.Page;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -14,9 +16,14 @@ public interface StudentMapper {
     @Select("SELECT * FROM student")
     List<Student> findAll();
 
+    // 流式读取所有学生，MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行返回结果
+    @Select("SELECT * FROM student")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Student> streamAll();
+
     // 创建学生 - 修正为新的表结构
     @Insert("INSERT INTO student (id, name, password, profession, phone, picture, " +
-            "base_score, total_score, studentRank, class_name, email, status, created_time) " +
+            "base_score, total_score, student_rank, class_name, email, status, created_time) " +
             "VALUES (#{id}, #{name}, #{password}, #{profession}, #{phone}, #{picture}, " +
             "#{baseScore}, #{totalScore}, #{studentRank}, #{className}, #{email}, " +
             "COALESCE(#{status}, 1), NOW())")
@@ -32,7 +39,7 @@ public interface StudentMapper {
             "picture = #{picture}, " +
             "base_score = #{baseScore}, " +
             "total_score = #{totalScore}, " +
-            "student_Rank = #{studentRank}, " +
+            "student_rank = #{studentRank}, " +
             "class_name = #{className}, " +
             "email = #{email}, " +
             "status = #{status}, " +
@@ -43,16 +50,31 @@ public interface StudentMapper {
 
     // 通过id删除学生 - 保持不变
     @Delete("DELETE FROM student WHERE id = #{id}")
-    void deleteByid(String id);
+    int deleteByid(String id);
 
     // 通过id查询学生 - 保持不变
     @Select("SELECT * FROM student WHERE id = #{id}")
     Student findByid(String id);
 
+    // 加锁读取，读到的是最新提交的值（不受事务快照影响）
+    @Select("SELECT * FROM student WHERE id = #{id} FOR UPDATE")
+    Student findByIdForUpdate(String id);
+
+    @Select("<script>SELECT * FROM student WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Student> findByIds(@Param("ids") Collection<String> ids);
+
     // 分页查询 - 保持不变
     @Select("SELECT * FROM student LIMIT #{offset}, #{pageSize}")
     List<Student> findByPage(@Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
 
+    // 游标分页：按 id 升序取 afterId 之后的 pageSize 条，翻到任何一页的代价都相同
+    @Select("<script>SELECT * FROM student " +
+            "<if test='afterId != null'>WHERE id &gt; #{afterId} </if>" +
+            "ORDER BY id LIMIT #{pageSize}</script>")
+    List<Student> findAfter(@Param("afterId") String afterId, @Param("pageSize") Integer pageSize);
+
     // 查询总记录数 - 保持不变
     @Select("SELECT COUNT(id) FROM student")
     Integer countStudents();
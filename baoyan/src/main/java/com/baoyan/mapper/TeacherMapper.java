@@ -45,12 +45,18 @@ public interface TeacherMapper {
 
     // 删除教师
     @Delete("DELETE FROM teacher WHERE id = #{id}")
-    void deleteById(String id);
+    int deleteById(String id);
 
     // 分页查询
     @Select("SELECT * FROM teacher LIMIT #{offset}, #{pageSize}")
     List<Teacher> findByPage(@Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
 
+    // 游标分页
+    @Select("<script>SELECT * FROM teacher " +
+            "<if test='afterId != null'>WHERE id &gt; #{afterId} </if>" +
+            "ORDER BY id LIMIT #{pageSize}</script>")
+    List<Teacher> findAfter(@Param("afterId") String afterId, @Param("pageSize") Integer pageSize);
+
     // 查询教师总数
     @Select("SELECT COUNT(*) FROM teacher")
     Integer countTeachers();
@@ -2,6 +2,8 @@ package com.baoyan.service;
 
 import com.baoyan.entity.Admin;
 import com.baoyan.mapper.AdminMapper;
+import com.baoyan.vo.Page;
+import com.baoyan.vo.PageCursor;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -14,6 +16,9 @@ public class AdminService {
     @Resource
     private AdminMapper adminMapper;
 
+    @Resource
+    private CountCache countCache;
+
     // 管理员登录
     public Admin login(String username, String password) {
         Admin admin = adminMapper.login(username, password);
@@ -45,6 +50,7 @@ public class AdminService {
         }
 
         adminMapper.save(admin);
+        countCache.adjust(CountCache.ADMINS, 1);
         return admin;
     }
 
@@ -55,7 +61,8 @@ public class AdminService {
 
     // 删除管理员
     public void deleteAdmin(Integer id) {
-        adminMapper.deleteById(id);
+        int rows = adminMapper.deleteById(id);
+        countCache.adjust(CountCache.ADMINS, -rows);
     }
 
     // 分页查询
@@ -64,9 +71,24 @@ public class AdminService {
         return adminMapper.findByPage(offset, pageSize);
     }
 
+    // 游标分页查询，cursor 为空时返回第一页
+    public Page<Admin> getAdminsAfter(String cursor, Integer pageSize) {
+        Page.checkPageSize(pageSize);
+        Integer afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                afterId = Integer.valueOf(PageCursor.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标", e);
+            }
+        }
+        List<Admin> admins = adminMapper.findAfter(afterId, pageSize + 1);
+        return Page.ofKeyset(admins, pageSize, last -> PageCursor.encode(last.getId()));
+    }
+
     // 获取管理员总数
     public Integer countAdmins() {
-        return adminMapper.countAdmins();
+        return countCache.get(CountCache.ADMINS, adminMapper::countAdmins);
     }
 
     // 检查用户名是否存在
@@ -0,0 +1,72 @@
+package com.baoyan.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在当前事务提交后执行内存状态更新，避免事务回滚后缓存、索引与数据库不一致；没有事务时立即执行
+ */
+public final class AfterCommit {
+
+    // 当前线程正在结束的事务所绑定的资源：在它的结束回调中再登记的同步不会被回调，需要直接执行；
+    // 回调中新开的事务（REQUIRES_NEW）绑定的是另一组资源，仍按该事务延后执行
+    private static final ThreadLocal<List<Object>> COMPLETING = new ThreadLocal<>();
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!deferrable()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                complete(action);
+            }
+        });
+    }
+
+    /**
+     * 在当前事务结束后执行，提交和回滚都会执行，用于淘汰缓存：
+     * 事务内经缓存读到的是本事务未提交的数据，回滚后也必须清除
+     */
+    public static void runAfterCompletion(Runnable action) {
+        if (!deferrable()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(action);
+            }
+        });
+    }
+
+    private static boolean deferrable() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        List<Object> completing = COMPLETING.get();
+        return completing == null || !completing.equals(boundResources());
+    }
+
+    private static void complete(Runnable action) {
+        List<Object> previous = COMPLETING.get();
+        COMPLETING.set(boundResources());
+        try {
+            action.run();
+        } finally {
+            COMPLETING.set(previous);
+        }
+    }
+
+    private static List<Object> boundResources() {
+        return new ArrayList<>(TransactionSynchronizationManager.getResourceMap().values());
+    }
+}
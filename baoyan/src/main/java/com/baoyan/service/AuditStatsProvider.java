@@ -0,0 +1,186 @@
+package com.baoyan.service;
+
+import com.baoyan.config.StatsProperties;
+import com.baoyan.entity.ScoreItem;
+import com.baoyan.mapper.ScoreItemMapper;
+import com.baoyan.vo.TeacherAuditStats;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 审核统计：全局待审核/通过/驳回数量和每位老师的通过/驳回数量。
+ * 计数器由一次分组查询初始化，之后由提交、重新提交、审核操作在事务提交后增减，并定期与数据库对账。
+ */
+@Component
+public class AuditStatsProvider {
+
+    @Resource
+    private ScoreItemMapper scoreItemMapper;
+
+    @Resource
+    private StatsProperties statsProperties;
+
+    private final ReconciledCounters<Counters> counters = new ReconciledCounters<>("审核统计", this::load);
+
+    /**
+     * 老师审核统计（不含通过率），计数器关闭时走一次数据库查询
+     */
+    public TeacherAuditStats getTeacherStats(String teacherId) {
+        if (!statsProperties.isCountersEnabled()) {
+            return scoreItemMapper.getTeacherAuditStats(teacherId);
+        }
+        Counters current = counters.get();
+        TeacherCounter teacher = current.teachers.get(teacherId);
+
+        TeacherAuditStats stats = new TeacherAuditStats();
+        stats.setPendingCount(current.pending.get());
+        stats.setApprovedCount(teacher != null ? teacher.approved.get() : 0);
+        stats.setRejectedCount(teacher != null ? teacher.rejected.get() : 0);
+        return stats;
+    }
+
+    /**
+     * 全局待审核/通过/驳回数量，计数器关闭时走一次分组查询
+     */
+    public Map<String, Integer> getItemTotals() {
+        Counters current = statsProperties.isCountersEnabled() ? counters.get() : load();
+        Map<String, Integer> totals = new LinkedHashMap<>();
+        totals.put("pendingItems", current.pending.get());
+        totals.put("approvedItems", current.approved.get());
+        totals.put("rejectedItems", current.rejected.get());
+        return totals;
+    }
+
+    // ========== 写操作回调（事务提交后生效） ==========
+
+    public void onSubmitted() {
+        update(c -> c.pending.incrementAndGet());
+    }
+
+    public void onResubmitted(String previousAuditorId) {
+        update(c -> {
+            c.pending.incrementAndGet();
+            c.rejected.decrementAndGet();
+            if (previousAuditorId != null) {
+                c.teacher(previousAuditorId).rejected.decrementAndGet();
+            }
+        });
+    }
+
+    public void onApproved(String teacherId) {
+        update(c -> {
+            c.pending.decrementAndGet();
+            c.approved.incrementAndGet();
+            c.teacher(teacherId).approved.incrementAndGet();
+        });
+    }
+
+    public void onRejected(String teacherId) {
+        update(c -> {
+            c.pending.decrementAndGet();
+            c.rejected.incrementAndGet();
+            c.teacher(teacherId).rejected.incrementAndGet();
+        });
+    }
+
+    public void onDeleted(Integer status, String auditorId) {
+        if (status == null) {
+            return;
+        }
+        update(c -> {
+            if (status == ScoreItem.Status.PENDING) {
+                c.pending.decrementAndGet();
+            } else if (status == ScoreItem.Status.APPROVED) {
+                c.approved.decrementAndGet();
+                if (auditorId != null) {
+                    c.teacher(auditorId).approved.decrementAndGet();
+                }
+            } else if (status == ScoreItem.Status.REJECTED) {
+                c.rejected.decrementAndGet();
+                if (auditorId != null) {
+                    c.teacher(auditorId).rejected.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // ========== 加载与对账 ==========
+
+    /**
+     * 启动完成后预先加载计数器，数据库不可用时推迟到首次读取
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (statsProperties.isCountersEnabled()) {
+            counters.warmUp();
+        }
+    }
+
+    /**
+     * 定期重新加载计数器，纠正并发或外部修改造成的偏差
+     */
+    @Scheduled(fixedDelayString = "${baoyan.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${baoyan.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (statsProperties.isCountersEnabled()) {
+            counters.reconcile();
+        }
+    }
+
+    private Counters load() {
+        List<Map<String, Object>> rows = scoreItemMapper.countItemsGroupByAuditorAndStatus();
+        Counters loaded = new Counters();
+        for (Map<String, Object> row : rows) {
+            int status = ((Number) row.get("status")).intValue();
+            int count = ((Number) row.get("cnt")).intValue();
+            String auditorId = (String) row.get("auditor_id");
+
+            if (status == ScoreItem.Status.PENDING) {
+                loaded.pending.addAndGet(count);
+            } else if (status == ScoreItem.Status.APPROVED) {
+                loaded.approved.addAndGet(count);
+                if (auditorId != null) {
+                    loaded.teacher(auditorId).approved.addAndGet(count);
+                }
+            } else if (status == ScoreItem.Status.REJECTED) {
+                loaded.rejected.addAndGet(count);
+                if (auditorId != null) {
+                    loaded.teacher(auditorId).rejected.addAndGet(count);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private void update(Consumer<Counters> action) {
+        if (statsProperties.isCountersEnabled()) {
+            counters.update(action);
+        }
+    }
+
+    static final class Counters {
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicInteger approved = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final Map<String, TeacherCounter> teachers = new ConcurrentHashMap<>();
+
+        TeacherCounter teacher(String teacherId) {
+            return teachers.computeIfAbsent(teacherId, id -> new TeacherCounter());
+        }
+    }
+
+    static final class TeacherCounter {
+        final AtomicInteger approved = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+    }
+}
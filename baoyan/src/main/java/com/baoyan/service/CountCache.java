@@ -0,0 +1,89 @@
+package com.baoyan.service;
+
+import com.baoyan.config.CacheProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数缓存：按表/过滤条件缓存 COUNT(*) 结果，短 TTL 过期后重新查询。
+ * 新增、删除、审核等写操作提交后通过 adjust 同步增减缓存值，TTL 用于兜底纠正并发下的偏差。
+ */
+@Component
+public class CountCache {
+
+    public static final String STUDENTS = "student";
+    public static final String TEACHERS = "teacher";
+    public static final String ADMINS = "admin";
+    public static final String PENDING_ITEMS = "score_item:pending";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Resource
+    private CacheProperties cacheProperties;
+
+    /**
+     * 读取缓存的总数，不存在或已过期时调用 loader 查询数据库
+     */
+    public Integer get(String key, Supplier<Integer> loader) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(cacheProperties.getCountTtlMs())) {
+            hits.increment();
+            return entry.value.get();
+        }
+        misses.increment();
+        Integer count = loader.get();
+        entries.put(key, new Entry(count != null ? count : 0));
+        return count;
+    }
+
+    /**
+     * 写操作提交后调整缓存值，缓存不存在时无需处理（下次读取会重新查询）
+     */
+    public void adjust(String key, int delta) {
+        AfterCommit.run(() -> {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.value.addAndGet(delta);
+            }
+        });
+    }
+
+    public void invalidate(String key) {
+        AfterCommit.runAfterCompletion(() -> entries.remove(key));
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("size", entries.size());
+        return stats;
+    }
+
+    private static final class Entry {
+        final AtomicInteger value;
+        final long loadedAt = System.currentTimeMillis();
+
+        Entry(int value) {
+            this.value = new AtomicInteger(value);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.baoyan.service;
+
+import com.baoyan.config.CacheProperties;
+import com.baoyan.entity.ScoreItem;
+import com.baoyan.entity.Student;
+import com.baoyan.mapper.ScoreItemMapper;
+import com.baoyan.mapper.StudentMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 学生、加分项目按 id 查询的读穿缓存，按条数和 TTL 淘汰。
+ * 返回的对象是共享实例，调用方不得修改；所有写操作需调用对应的 evict 方法。
+ */
+@Component
+public class EntityCache {
+
+    @Resource
+    private StudentMapper studentMapper;
+
+    @Resource
+    private ScoreItemMapper scoreItemMapper;
+
+    @Resource
+    private CacheProperties cacheProperties;
+
+    private Cache<String, Student> students;
+    private Cache<Long, ScoreItem> items;
+
+    @PostConstruct
+    public void init() {
+        students = newCache();
+        items = newCache();
+    }
+
+    private <K, V> Cache<K, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getEntityMaxSize())
+                .expireAfterWrite(Duration.ofMillis(cacheProperties.getEntityTtlMs()))
+                .recordStats()
+                .build();
+    }
+
+    public Student getStudent(String id) {
+        return id == null ? null : students.get(id, studentMapper::findByid);
+    }
+
+    public ScoreItem getItem(Long id) {
+        return id == null ? null : items.get(id, scoreItemMapper::findById);
+    }
+
+    /**
+     * 写操作后淘汰学生缓存：立即淘汰一次，事务结束后再淘汰一次，防止提交前被其他请求读回旧值；
+     * 回滚时同样淘汰，事务内经缓存读回的是本事务未提交的数据
+     */
+    public void evictStudent(String id) {
+        students.invalidate(id);
+        AfterCommit.runAfterCompletion(() -> students.invalidate(id));
+    }
+
+    public void evictStudents(Collection<String> ids) {
+        students.invalidateAll(ids);
+        AfterCommit.runAfterCompletion(() -> students.invalidateAll(ids));
+    }
+
+    public void evictAllStudents() {
+        students.invalidateAll();
+        AfterCommit.runAfterCompletion(students::invalidateAll);
+    }
+
+    public void evictItem(Long id) {
+        items.invalidate(id);
+        AfterCommit.runAfterCompletion(() -> items.invalidate(id));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("student", describe(students.stats(), students.estimatedSize()));
+        stats.put("scoreItem", describe(items.stats(), items.estimatedSize()));
+        return stats;
+    }
+
+    /**
+     * 把 Caffeine 统计转换为接口输出格式
+     */
+    public static Map<String, Object> describe(CacheStats cacheStats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", cacheStats.hitCount());
+        map.put("misses", cacheStats.missCount());
+        map.put("hitRate", cacheStats.hitRate());
+        map.put("evictions", cacheStats.evictionCount());
+        map.put("loads", cacheStats.loadCount());
+        map.put("averageLoadMillis", cacheStats.averageLoadPenalty() / 1_000_000.0);
+        return map;
+    }
+}
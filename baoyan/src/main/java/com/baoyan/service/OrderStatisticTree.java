@@ -0,0 +1,205 @@
+package com.baoyan.service;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 带子树计数的 Treap（顺序统计树），默认按总分降序保存 RankEntry。
+ * 插入、删除、按分数求名次、按位置取记录均为 O(log n)。
+ * <p>
+ * 节点不可变，插入和删除只复制根到修改点路径上的节点，因此 copy() 为 O(1)，
+ * 复制出的树与原树互不影响，可以作为只读快照交给其他线程读取。单棵树的修改非线程安全，由调用方加锁。
+ */
+public class OrderStatisticTree {
+
+    private static final class Node {
+        final RankEntry entry;
+        final int priority;
+        final Node left;
+        final Node right;
+        final int size;
+
+        Node(RankEntry entry, int priority, Node left, Node right) {
+            this.entry = entry;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private final Comparator<RankEntry> order;
+    private Node root;
+
+    public OrderStatisticTree() {
+        this(Comparator.naturalOrder());
+    }
+
+    /**
+     * 按指定顺序保存记录，countHigher 只对按总分排序的树有意义
+     */
+    public OrderStatisticTree(Comparator<RankEntry> order) {
+        this.order = order;
+    }
+
+    private OrderStatisticTree(Comparator<RankEntry> order, Node root) {
+        this.order = order;
+        this.root = root;
+    }
+
+    /**
+     * 当前内容的独立副本，O(1)
+     */
+    public OrderStatisticTree copy() {
+        return new OrderStatisticTree(order, root);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(RankEntry entry) {
+        root = insert(root, entry, ThreadLocalRandom.current().nextInt());
+    }
+
+    public boolean remove(RankEntry entry) {
+        int before = size(root);
+        root = remove(root, entry);
+        return size(root) < before;
+    }
+
+    /**
+     * 总分严格高于 score 的记录数，加 1 即为该分数的并列名次
+     */
+    public int countHigher(BigDecimal score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.entry.getTotalScore().compareTo(score) > 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按位置（从 0 开始，总分最高者在前）取记录
+     */
+    public RankEntry get(int index) {
+        if (index < 0 || index >= size(root)) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size(root));
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.entry;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 记录在树中的位置（从 0 开始），不存在时返回 -1
+     */
+    public int indexOf(RankEntry entry) {
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            int c = order.compare(entry, node.entry);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按树的排序规则查找与 key 相等的记录，不存在时返回 null
+     */
+    public RankEntry find(RankEntry key) {
+        Node node = root;
+        while (node != null) {
+            int c = order.compare(key, node.entry);
+            if (c == 0) {
+                return node.entry;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private Node insert(Node node, RankEntry entry, int priority) {
+        if (node == null) {
+            return new Node(entry, priority, null, null);
+        }
+        if (priority > node.priority) {
+            Node[] parts = split(node, entry);
+            return new Node(entry, priority, parts[0], parts[1]);
+        }
+        if (order.compare(entry, node.entry) < 0) {
+            return new Node(node.entry, node.priority, insert(node.left, entry, priority), node.right);
+        }
+        return new Node(node.entry, node.priority, node.left, insert(node.right, entry, priority));
+    }
+
+    private Node remove(Node node, RankEntry entry) {
+        if (node == null) {
+            return null;
+        }
+        int c = order.compare(entry, node.entry);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            Node left = remove(node.left, entry);
+            return left == node.left ? node : new Node(node.entry, node.priority, left, node.right);
+        }
+        Node right = remove(node.right, entry);
+        return right == node.right ? node : new Node(node.entry, node.priority, node.left, right);
+    }
+
+    // 拆分为 (< key, >= key) 两棵树
+    private Node[] split(Node node, RankEntry key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (order.compare(node.entry, key) < 0) {
+            Node[] parts = split(node.right, key);
+            return new Node[]{new Node(node.entry, node.priority, node.left, parts[0]), parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        return new Node[]{parts[0], new Node(node.entry, node.priority, parts[1], node.right)};
+    }
+
+    // 合并两棵树，要求 left 中所有记录都排在 right 之前
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node(left.entry, left.priority, left.left, merge(left.right, right));
+        }
+        return new Node(right.entry, right.priority, merge(left, right.left), right.right);
+    }
+}
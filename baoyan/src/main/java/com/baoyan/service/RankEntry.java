@@ -0,0 +1,22 @@
+package com.baoyan.service;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * 排名索引中的一条记录，按总分降序、学号升序排列
+ */
+@Value
+public class RankEntry implements Comparable<RankEntry> {
+    String studentId;
+    String name;
+    String profession;
+    BigDecimal totalScore;
+
+    @Override
+    public int compareTo(RankEntry other) {
+        int c = other.totalScore.compareTo(this.totalScore);
+        return c != 0 ? c : this.studentId.compareTo(other.studentId);
+    }
+}
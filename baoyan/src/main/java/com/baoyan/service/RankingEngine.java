@@ -0,0 +1,51 @@
+package com.baoyan.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 排名计算引擎：对已按总分降序排列的分数序列一次遍历算出名次
+ */
+public final class RankingEngine {
+
+    public enum Mode {
+        COMPETITION, // 并列占位排名：1, 1, 3
+        DENSE        // 并列不占位排名：1, 1, 2
+    }
+
+    private RankingEngine() {
+    }
+
+    /**
+     * 按默认的并列占位规则计算名次（与原有排名逻辑一致）
+     */
+    public static int[] assignRanks(List<BigDecimal> scoresDesc) {
+        return assignRanks(scoresDesc, Mode.COMPETITION);
+    }
+
+    /**
+     * 计算名次，scoresDesc 必须已按总分降序排列，总分相同的学生名次相同
+     */
+    public static int[] assignRanks(List<BigDecimal> scoresDesc, Mode mode) {
+        int[] ranks = new int[scoresDesc.size()];
+        BigDecimal lastScore = null;
+        int rank = 0;
+
+        for (int i = 0; i < ranks.length; i++) {
+            BigDecimal currentScore = scoresDesc.get(i);
+            if (i == 0 || !sameScore(lastScore, currentScore)) {
+                rank = mode == Mode.DENSE ? rank + 1 : i + 1;
+            }
+            ranks[i] = rank;
+            lastScore = currentScore;
+        }
+        return ranks;
+    }
+
+    private static boolean sameScore(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,356 @@
+package com.baoyan.service;
+
+import com.baoyan.vo.RankedStudent;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 内存排名索引：每个专业一棵顺序统计树，另有一棵全院树。
+ * 名次查询和总分变更均为 O(log n)，数据库中的 student_rank 由 RankingQueue 异步写回。
+ * <p>
+ * 读写分离为两份：写操作在当前快照的副本（树的 copy 为 O(1)，修改只复制路径上的节点）上修改，
+ * 完成后替换 volatile 引用发布为新快照；读操作只读取已发布的快照，不加锁，
+ * 一次查询内的专业名次、全院名次都来自同一版本，不会看到重建或更新到一半的数据。
+ * <p>
+ * 重建时从数据库加载全量数据需要一段时间，期间到达的更新先照常应用到当前快照并记入日志，
+ * 加载完成后在新快照上重放，避免被加载时读到的旧数据覆盖。索引未加载时不接受单条更新，只记入进行中的重建日志。
+ */
+@Component
+public class RankingIndex {
+
+    // 按学号查找记录，只比较学号
+    private static final Comparator<RankEntry> BY_STUDENT_ID = Comparator.comparing(RankEntry::getStudentId);
+
+    // 写操作之间互斥，读操作不需要
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // 重建之间互斥，加载数据期间不持有 writeLock
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    private long version;
+    // 正在重建时记录期间的更新，由 writeLock 保护；不在重建时为 null
+    private List<Consumer<Snapshot>> journal;
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * 当前发布的快照，索引未加载时为 null
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * 用全量数据重建索引，构建完成后一次性替换
+     */
+    public void rebuild(Collection<RankEntry> entries) {
+        rebuild(() -> entries);
+    }
+
+    /**
+     * 调用 loader 加载全量数据重建索引，加载期间的更新在新快照上重放后一次性替换
+     */
+    public void rebuild(Supplier<Collection<RankEntry>> loader) {
+        rebuildLock.lock();
+        try {
+            withWriteLock(() -> journal = new ArrayList<>());
+            Collection<RankEntry> entries;
+            try {
+                entries = loader.get();
+            } catch (RuntimeException e) {
+                withWriteLock(() -> journal = null);
+                throw e;
+            }
+            withWriteLock(() -> {
+                Snapshot next = new Snapshot();
+                entries.forEach(next::insert);
+                journal.forEach(change -> change.accept(next));
+                journal = null;
+                publish(next);
+            });
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * 新增或替换某个学生的记录（总分、专业变化时调用）
+     */
+    public void put(RankEntry entry) {
+        apply(next -> {
+            next.delete(entry.getStudentId());
+            next.insert(entry);
+            return true;
+        });
+    }
+
+    /**
+     * 从索引中移除学生（删除或不再参与排名时调用）
+     */
+    public void remove(String studentId) {
+        apply(next -> next.delete(studentId));
+    }
+
+    /**
+     * 在当前快照的副本上执行修改并发布，重建进行中时同时记入日志；索引未加载且没有进行中的重建时忽略
+     */
+    private void apply(Predicate<Snapshot> change) {
+        withWriteLock(() -> {
+            if (journal != null) {
+                journal.add(change::test);
+            }
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Snapshot next = current.copy();
+            if (change.test(next)) {
+                publish(next);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 查询学生的专业排名和全院排名，学生不在索引中时返回 null
+     */
+    public Position lookup(String studentId) {
+        Snapshot current = snapshot;
+        return current != null ? current.lookup(studentId) : null;
+    }
+
+    private void publish(Snapshot next) {
+        next.version = ++version;
+        next.computedAt = LocalDateTime.now();
+        snapshot = next;
+    }
+
+    /**
+     * 某一版本的排名数据，发布后不再修改
+     */
+    public static class Snapshot {
+        private final Map<String, OrderStatisticTree> professions;
+        private final OrderStatisticTree college;
+        private final OrderStatisticTree students;
+        private long version;
+        private LocalDateTime computedAt;
+
+        private Snapshot() {
+            this(new HashMap<>(), new OrderStatisticTree(), new OrderStatisticTree(BY_STUDENT_ID));
+        }
+
+        private Snapshot(Map<String, OrderStatisticTree> professions, OrderStatisticTree college,
+                         OrderStatisticTree students) {
+            this.professions = professions;
+            this.college = college;
+            this.students = students;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public LocalDateTime getComputedAt() {
+            return computedAt;
+        }
+
+        public int size() {
+            return students.size();
+        }
+
+        /**
+         * 学生在本快照中的位置，不存在时返回 null
+         */
+        public Position lookup(String studentId) {
+            RankEntry entry = find(studentId);
+            if (entry == null) {
+                return null;
+            }
+            Position position = new Position();
+            position.setEntry(entry);
+            OrderStatisticTree tree = professions.get(entry.getProfession());
+            if (tree != null) {
+                position.setProfessionRank(tree.countHigher(entry.getTotalScore()) + 1);
+                position.setProfessionSize(tree.size());
+            }
+            position.setCollegeRank(college.countHigher(entry.getTotalScore()) + 1);
+            position.setCollegeSize(college.size());
+            position.setVersion(version);
+            position.setComputedAt(computedAt);
+            return position;
+        }
+
+        /**
+         * 参与排名的人数，profession 为空时为全院
+         */
+        public int size(String profession) {
+            OrderStatisticTree tree = tree(profession);
+            return tree != null ? tree.size() : 0;
+        }
+
+        /**
+         * 按名次顺序取 [offset, offset + limit) 范围内的学生，profession 为空时为全院排行
+         */
+        public List<RankedStudent> range(String profession, int offset, int limit) {
+            OrderStatisticTree tree = tree(profession);
+            if (tree == null) {
+                return new ArrayList<>();
+            }
+            return range(tree, offset, limit);
+        }
+
+        /**
+         * 学生在专业（college 为 false）或全院排行中前后各 k 名，学生不在索引中时返回 null
+         */
+        public Neighbors neighbors(String studentId, boolean college, int k) {
+            RankEntry entry = find(studentId);
+            if (entry == null) {
+                return null;
+            }
+            OrderStatisticTree tree = college ? this.college : professions.get(entry.getProfession());
+            if (tree == null) {
+                return null;
+            }
+            int index = tree.indexOf(entry);
+            int from = Math.max(0, index - k);
+            List<RankedStudent> window = range(tree, from, Math.min(tree.size(), index + k + 1) - from);
+            for (RankedStudent student : window) {
+                student.setScoreGap(student.getTotalScore().subtract(entry.getTotalScore()));
+            }
+
+            Neighbors neighbors = new Neighbors();
+            neighbors.setScope(college ? "ALL" : entry.getProfession());
+            neighbors.setStudent(window.get(index - from));
+            neighbors.setAbove(new ArrayList<>(window.subList(0, index - from)));
+            neighbors.setBelow(new ArrayList<>(window.subList(index - from + 1, window.size())));
+            neighbors.setTotal(tree.size());
+            neighbors.setSnapshotVersion(version);
+            neighbors.setComputedAt(computedAt);
+            return neighbors;
+        }
+
+        private static List<RankedStudent> range(OrderStatisticTree tree, int offset, int limit) {
+            if (offset >= tree.size()) {
+                return new ArrayList<>();
+            }
+            int end = Math.min(tree.size(), offset + limit);
+            List<RankedStudent> result = new ArrayList<>(end - offset);
+            BigDecimal previousScore = null;
+            int rank = 0;
+            for (int i = offset; i < end; i++) {
+                RankEntry entry = tree.get(i);
+                if (previousScore == null) {
+                    // 页首可能与上一页末尾并列，按分数求名次
+                    rank = tree.countHigher(entry.getTotalScore()) + 1;
+                } else if (entry.getTotalScore().compareTo(previousScore) != 0) {
+                    rank = i + 1;
+                }
+                previousScore = entry.getTotalScore();
+                result.add(toRanked(entry, rank));
+            }
+            return result;
+        }
+
+        private OrderStatisticTree tree(String profession) {
+            return profession == null ? college : professions.get(profession);
+        }
+
+        private static RankedStudent toRanked(RankEntry entry, int rank) {
+            RankedStudent student = new RankedStudent();
+            student.setRank(rank);
+            student.setStudentId(entry.getStudentId());
+            student.setName(entry.getName());
+            student.setProfession(entry.getProfession());
+            student.setTotalScore(entry.getTotalScore());
+            return student;
+        }
+
+        private RankEntry find(String studentId) {
+            return students.find(new RankEntry(studentId, null, null, null));
+        }
+
+        private Snapshot copy() {
+            Map<String, OrderStatisticTree> trees = new HashMap<>(professions.size() * 2);
+            professions.forEach((profession, tree) -> trees.put(profession, tree.copy()));
+            return new Snapshot(trees, college.copy(), students.copy());
+        }
+
+        private void insert(RankEntry entry) {
+            students.insert(entry);
+            if (entry.getProfession() != null) {
+                professions.computeIfAbsent(entry.getProfession(), p -> new OrderStatisticTree()).insert(entry);
+            }
+            college.insert(entry);
+        }
+
+        private boolean delete(String studentId) {
+            RankEntry old = find(studentId);
+            if (old == null) {
+                return false;
+            }
+            students.remove(old);
+            OrderStatisticTree tree = professions.get(old.getProfession());
+            if (tree != null) {
+                tree.remove(old);
+                if (tree.size() == 0) {
+                    professions.remove(old.getProfession());
+                }
+            }
+            college.remove(old);
+            return true;
+        }
+    }
+
+    /**
+     * 学生及其前后相邻的学生，名次和分差都来自同一快照
+     */
+    @Setter
+    @Getter
+    public static class Neighbors {
+        private String scope;              // 排名范围：专业名称或 "ALL"
+        private RankedStudent student;     // 学生本人
+        private List<RankedStudent> above; // 排在前面的学生，按名次升序
+        private List<RankedStudent> below; // 排在后面的学生，按名次升序
+        private Integer total;             // 该范围参与排名的人数
+        private long snapshotVersion;      // 快照版本
+        private LocalDateTime computedAt;  // 快照生成时间
+    }
+
+    /**
+     * 学生在索引中的位置
+     */
+    @Setter
+    @Getter
+    public static class Position {
+        private RankEntry entry;
+        private Integer professionRank;  // 专业排名
+        private Integer professionSize;  // 专业参与排名人数
+        private Integer collegeRank;     // 全院排名
+        private Integer collegeSize;     // 全院参与排名人数
+        private long version;            // 快照版本
+        private LocalDateTime computedAt; // 快照生成时间
+    }
+}
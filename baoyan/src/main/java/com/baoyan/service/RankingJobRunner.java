@@ -0,0 +1,195 @@
+package com.baoyan.service;
+
+import com.baoyan.config.RankingProperties;
+import com.baoyan.mapper.RankingJobMapper;
+import com.baoyan.mapper.ScoreItemMapper;
+import com.baoyan.vo.BatchScoreResult;
+import com.baoyan.vo.RankingJobStatus;
+import com.baoyan.vo.RankingResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 定时全量重算：先分批重算所有学生总分，再逐个专业重排名次，每个专业一个事务，不会长时间锁住整张 student 表。
+ * <p>
+ * 多实例部署时通过 ranking_job 表中的行抢占运行锁（租约），同一时间只有一个实例执行；
+ * 总分阶段每提交一批续约一次，排名阶段每完成一个专业写一次检查点并续约，
+ * 持有者崩溃后租约到期，下一个抢到锁的实例从检查点之后的专业继续。
+ * ranking_job 表由 V4 迁移脚本创建，表不存在时跳过任务并告警。
+ */
+@Slf4j
+@Service
+public class RankingJobRunner {
+
+    public static final String NIGHTLY_JOB = "nightly-rerank";
+
+    static final String STATUS_RUNNING = "RUNNING";
+    static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    static final String STATUS_FAILED = "FAILED";
+
+    static final String PHASE_SCORES = "SCORES";
+    static final String PHASE_RANKING = "RANKING";
+
+    // 每完成多少个专业输出一次进度日志
+    private static final int PROGRESS_LOG_INTERVAL = 10;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Resource
+    private RankingJobMapper rankingJobMapper;
+
+    @Resource
+    private ScoreItemMapper scoreItemMapper;
+
+    @Resource
+    private RankingService rankingService;
+
+    @Resource
+    private RankingProperties rankingProperties;
+
+    // 本实例的锁持有者标识：进程名（pid@host）加随机后缀
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    @Scheduled(cron = "${baoyan.ranking.nightly.cron:0 30 2 * * *}")
+    public void runNightly() {
+        try {
+            run();
+        } catch (Exception e) {
+            log.warn("定时排名任务失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 执行一次全量重算
+     *
+     * @return 运行结束后的状态；其他实例正在执行或 ranking_job 表不存在时返回 null
+     */
+    public RankingJobStatus run() {
+        int leaseSeconds = rankingProperties.getNightly().getLeaseSeconds();
+        int acquired;
+        try {
+            acquired = rankingJobMapper.tryAcquire(NIGHTLY_JOB, owner, leaseSeconds);
+        } catch (BadSqlGrammarException e) {
+            log.warn("ranking_job 表不存在，跳过排名任务，请执行 db/migration/V4__ranking_job.sql 或开启 Flyway");
+            return null;
+        }
+        if (acquired == 0) {
+            log.info("排名任务正由其他实例执行，本次跳过");
+            return null;
+        }
+
+        RankingJobStatus progress = rankingJobMapper.findByName(NIGHTLY_JOB);
+        if (STATUS_RUNNING.equals(progress.getStatus())) {
+            // 上一次运行的持有者在结束前失去了租约（进程崩溃或被终止），从检查点继续
+            log.warn("接手未完成的排名任务: phase={}, professionsDone={}, lastProfession={}",
+                    progress.getPhase(), progress.getProfessionsDone(), progress.getLastProfession());
+            rankingJobMapper.resume(NIGHTLY_JOB, owner);
+        } else {
+            rankingJobMapper.start(NIGHTLY_JOB, owner);
+            progress = rankingJobMapper.findByName(NIGHTLY_JOB);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            execute(progress, leaseSeconds);
+        } catch (RuntimeException e) {
+            long elapsed = System.currentTimeMillis() - start;
+            rankingJobMapper.finish(NIGHTLY_JOB, owner, STATUS_FAILED, elapsed, truncate(e.getMessage()));
+            throw e;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        rankingJobMapper.finish(NIGHTLY_JOB, owner, STATUS_SUCCEEDED, elapsed, null);
+        log.info("排名任务完成: students={}, professions={}, rowsChanged={}, elapsed={}ms",
+                progress.getStudentsScanned(), progress.getProfessionsTotal(), progress.getRowsChanged(), elapsed);
+
+        // 总分和名次整体更新后重建内存索引
+        rankingService.loadRankingIndex();
+        return getStatus();
+    }
+
+    private void execute(RankingJobStatus progress, int leaseSeconds) {
+        if (!PHASE_RANKING.equals(progress.getPhase())) {
+            // 总分阶段不分专业，没有可续跑的检查点，但每批提交后续约，避免耗时超过租约被其他实例接手
+            BatchScoreResult scores = rankingService.recalculateScores(() -> checkpoint(progress, leaseSeconds));
+            progress.setStudentsScanned(scores.getStudentsScanned());
+            progress.setRowsChanged(scores.getRowsUpdated());
+            progress.setPhase(PHASE_RANKING);
+            checkpoint(progress, leaseSeconds);
+        }
+
+        // 按固定顺序遍历专业，检查点之前的专业视为已完成
+        List<String> professions = new ArrayList<>(scoreItemMapper.getRankedProfessions());
+        Collections.sort(professions);
+        progress.setProfessionsTotal(professions.size());
+
+        String lastDone = progress.getLastProfession();
+        int rowsChanged = progress.getRowsChanged() != null ? progress.getRowsChanged() : 0;
+        for (int i = 0; i < professions.size(); i++) {
+            String profession = professions.get(i);
+            if (lastDone != null && profession.compareTo(lastDone) <= 0) {
+                continue;
+            }
+            RankingResult result = rankingService.updateRankingByProfession(profession);
+            rowsChanged += result.getRowsUpdated();
+
+            progress.setRowsChanged(rowsChanged);
+            progress.setProfessionsDone(i + 1);
+            progress.setLastProfession(profession);
+            checkpoint(progress, leaseSeconds);
+
+            if ((i + 1) % PROGRESS_LOG_INTERVAL == 0) {
+                log.info("排名任务进度: {}/{} 个专业, rowsChanged={}", i + 1, professions.size(), rowsChanged);
+            }
+        }
+    }
+
+    /**
+     * 写检查点并续约，运行锁已被其他实例接手时中止本次运行
+     */
+    private void checkpoint(RankingJobStatus progress, int leaseSeconds) {
+        if (rankingJobMapper.checkpoint(NIGHTLY_JOB, owner, leaseSeconds, progress) == 0) {
+            throw new IllegalStateException("排名任务运行锁已失效，可能已由其他实例接手");
+        }
+    }
+
+    /**
+     * 最近一次运行的状态和进度，附带下一次定时执行时间
+     */
+    public RankingJobStatus getStatus() {
+        RankingJobStatus status;
+        try {
+            status = rankingJobMapper.findByName(NIGHTLY_JOB);
+        } catch (BadSqlGrammarException e) {
+            log.warn("ranking_job 表不存在，无法读取排名任务状态");
+            status = null;
+        }
+        if (status == null) {
+            status = new RankingJobStatus();
+            status.setJobName(NIGHTLY_JOB);
+        }
+        String cron = rankingProperties.getNightly().getCron();
+        if (cron != null && !"-".equals(cron)) {
+            status.setNextRunAt(CronExpression.parse(cron).next(LocalDateTime.now()));
+        }
+        return status;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,177 @@
+package com.baoyan.service;
+
+import com.baoyan.config.RankingProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 排名重算队列：事务提交后按专业入队，后台在防抖窗口内合并同一专业的重复事件，
+ * 先统一重算入队学生的总分，再对该专业只重排一次。内存排名索引的 student_rank 写回也经过这里。
+ */
+@Slf4j
+@Component
+public class RankingQueue {
+
+    // 没有专业的学生只需要重算总分
+    private static final String NO_PROFESSION = "";
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+
+    @Resource
+    private RankingProperties rankingProperties;
+
+    @Lazy
+    @Resource
+    private RankingService rankingService;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("baoyan.ranking.queue.depth", this, RankingQueue::depth)
+                .description("待重算的专业数")
+                .register(meterRegistry);
+        Gauge.builder("baoyan.ranking.queue.lag", this, RankingQueue::lagMillis)
+                .description("队列中最早事件已等待的时间")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("baoyan.ranking.queue.processed", processed, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("baoyan.ranking.queue.failures", failures, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 学生总分需要重算，随后重排其所在专业
+     */
+    public void enqueueStudent(String studentId, String profession) {
+        AfterCommit.run(() -> enqueue(profession, studentId, false));
+    }
+
+    /**
+     * 某个专业的名次需要重排（总分已是最新）
+     */
+    public void enqueueProfession(String profession) {
+        AfterCommit.run(() -> enqueue(profession, null, true));
+    }
+
+    private void enqueue(String profession, String studentId, boolean rerank) {
+        long now = System.currentTimeMillis();
+        pending.compute(profession != null ? profession : NO_PROFESSION, (key, entry) -> {
+            if (entry == null) {
+                entry = new Pending(now);
+            }
+            entry.lastAt = now;
+            if (studentId != null) {
+                entry.studentIds.add(studentId);
+            }
+            entry.rerank |= rerank;
+            return entry;
+        });
+        enqueued.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${baoyan.ranking.queue.poll-interval-ms:200}")
+    public void drain() {
+        long now = System.currentTimeMillis();
+        RankingProperties.Queue config = rankingProperties.getQueue();
+        for (Map.Entry<String, Pending> item : pending.entrySet()) {
+            Pending entry = item.getValue();
+            boolean quiet = now - entry.lastAt >= config.getDebounceMs();
+            boolean overdue = now - entry.firstAt >= config.getMaxDelayMs();
+            // remove 与 enqueue 的 compute 互斥，移除后新到的事件会进入新的条目
+            if ((quiet || overdue) && pending.remove(item.getKey(), entry)) {
+                process(item.getKey(), entry);
+            }
+        }
+    }
+
+    private void process(String key, Pending entry) {
+        String profession = NO_PROFESSION.equals(key) ? null : key;
+        try {
+            int reranked = 0;
+            if (!entry.studentIds.isEmpty()) {
+                reranked = rankingService.refreshStudentsRanking(entry.studentIds);
+            }
+            if (entry.rerank && profession != null && reranked == 0) {
+                rankingService.updateRankingByProfession(profession);
+            }
+            processed.increment();
+            lastLagMillis.set(System.currentTimeMillis() - entry.firstAt);
+        } catch (Exception e) {
+            // 失败时放回队列，下次重试
+            failures.increment();
+            pending.merge(key, entry, Pending::mergeFrom);
+            log.warn("排名重算失败: profession={}, error={}", profession, e.getMessage());
+        }
+    }
+
+    /**
+     * 队列深度、最早事件等待时间等指标
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("depth", depth());
+        stats.put("lagMillis", lagMillis());
+        stats.put("lastLagMillis", lastLagMillis.get());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("processed", processed.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+
+    public int depth() {
+        return pending.size();
+    }
+
+    /**
+     * 队列中最早事件已等待的时间，队列为空时为 0
+     */
+    public long lagMillis() {
+        long now = System.currentTimeMillis();
+        long lag = 0;
+        for (Pending entry : new ArrayList<>(pending.values())) {
+            lag = Math.max(lag, now - entry.firstAt);
+        }
+        return lag;
+    }
+
+    private static final class Pending {
+        final long firstAt;
+        volatile long lastAt;
+        final Set<String> studentIds = ConcurrentHashMap.newKeySet();
+        volatile boolean rerank;
+
+        Pending(long firstAt) {
+            this.firstAt = firstAt;
+            this.lastAt = firstAt;
+        }
+
+        static Pending mergeFrom(Pending current, Pending failed) {
+            current.studentIds.addAll(failed.studentIds);
+            current.rerank |= failed.rerank;
+            return current;
+        }
+    }
+}
@@ -1,161 +1,755 @@
 package com.baoyan.service;
 
+import com.baoyan.config.BatchSqlSession;
+import com.baoyan.config.RankingProperties;
 import com.baoyan.entity.Student;
 import com.baoyan.mapper.ScoreItemMapper;
 import com.baoyan.mapper.StudentMapper;
+import com.baoyan.vo.BatchScoreResult;
+import com.baoyan.vo.Leaderboard;
+import com.baoyan.vo.RankedStudent;
+import com.baoyan.vo.RankingResult;
+import com.baoyan.vo.StudentRank;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 public class RankingService {
 
+    private static final String SCOPE_ALL = "ALL";
+
+    // 单条批量 UPDATE 语句最多携带的学生数
+    private static final int RANK_UPDATE_CHUNK = 500;
+
+    // 排行榜单次最多返回的学生数
+    public static final int MAX_LEADERBOARD_SIZE = 1000;
+
+    // 相邻查询前后各最多返回的学生数
+    public static final int MAX_NEIGHBORS = 50;
+
     @Resource
     private StudentMapper studentMapper;
 
     @Resource
     private ScoreItemMapper scoreItemMapper;
 
+    @Resource
+    private RankingProperties rankingProperties;
+
+    @Resource
+    private RankingIndex rankingIndex;
+
+    @Resource
+    private RankingQueue rankingQueue;
+
+    @Resource
+    private BatchSqlSession batchSqlSession;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private EntityCache entityCache;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 在调用方事务提交回调中执行名次写回时使用，必须开启新事务
+    private TransactionTemplate rerankTransaction;
+
+    // 最近一次成功加载排名索引的时间
+    private volatile long indexLoadedAt;
+
+    @PostConstruct
+    public void init() {
+        rerankTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        rerankTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     /**
-     * 更新单个学生的总分（基础分 + 所有通过审核的加分项）
+     * 启动时加载内存排名索引，数据库不可用时保持未就绪，名次查询回退到数据库，由 reconcileRankingIndex 定期重试
      */
-    @Transactional
-    public void updateStudentTotalScore(String studentId) {
-        // 1. 获取学生基本信息
-        Student student = studentMapper.findByid(studentId);
-        if (student == null) {
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRankingIndex() {
+        if (!rankingProperties.getIndex().isEnabled()) {
             return;
         }
+        try {
+            long start = System.currentTimeMillis();
+            rankingIndex.rebuild(() -> {
+                List<RankEntry> entries = new ArrayList<>();
+                for (Map<String, Object> row : scoreItemMapper.getRankedStudents()) {
+                    entries.add(new RankEntry((String) row.get("id"), (String) row.get("name"),
+                            (String) row.get("profession"), (BigDecimal) row.get("total_score")));
+                }
+                return entries;
+            });
+            indexLoadedAt = System.currentTimeMillis();
+            log.info("排名索引加载完成: students={}, elapsed={}ms",
+                    rankingIndex.current().size(), indexLoadedAt - start);
+        } catch (Exception e) {
+            log.warn("排名索引加载失败，名次查询回退到数据库: {}", e.getMessage());
+        }
+    }
 
-        // 2. 计算所有通过审核的加分项总分
-        BigDecimal approvedScoreSum = scoreItemMapper.sumApprovedScoreByStudent(studentId);
-        if (approvedScoreSum == null) {
-            approvedScoreSum = BigDecimal.ZERO;
+    /**
+     * 索引未就绪时重试加载；已就绪时按 reloadIntervalMs 定期全量重建，把其他实例的修改同步到本实例
+     */
+    @Scheduled(fixedDelayString = "${baoyan.ranking.index.check-interval-ms:30000}",
+            initialDelayString = "${baoyan.ranking.index.check-interval-ms:30000}")
+    public void reconcileRankingIndex() {
+        RankingProperties.Index config = rankingProperties.getIndex();
+        if (!config.isEnabled()) {
+            return;
         }
+        boolean due = config.getReloadIntervalMs() > 0
+                && System.currentTimeMillis() - indexLoadedAt >= config.getReloadIntervalMs();
+        if (!rankingIndex.isReady() || due) {
+            loadRankingIndex();
+        }
+    }
 
-        // 3. 计算最终总分 = 基础分 + 加分项总分
-        BigDecimal baseScore = student.getBaseScore() != null ? student.getBaseScore() : BigDecimal.ZERO;
-        BigDecimal totalScore = baseScore.add(approvedScoreSum);
+    private static BigDecimal scoreOrZero(BigDecimal score) {
+        return score != null ? score : BigDecimal.ZERO;
+    }
 
-        // 4. 更新学生总分
-        student.setTotalScore(totalScore);
-        studentMapper.updateByid(student);
+    /**
+     * 计算学生最终总分 = 基础分 + 通过审核的加分之和（approved_score 列由项目状态变化按差值维护，无需再聚合）
+     */
+    private BigDecimal calculateTotalScore(Student student) {
+        return scoreOrZero(student.getBaseScore()).add(scoreOrZero(student.getApprovedScore()));
     }
 
     /**
      * 更新某个专业所有学生的排名
      */
     @Transactional
-    public void updateRankingByProfession(String profession) {
+    public RankingResult updateRankingByProfession(String profession) {
         // 1. 获取该专业所有学生，按总分降序排列
         List<Map<String, Object>> students = scoreItemMapper.getStudentScoresByProfession(profession);
 
-        // 2. 计算排名（考虑并列情况）
-        int rank = 1;
-        BigDecimal lastScore = null;
-        int sameScoreCount = 0;
+        // 2. 计算排名并批量写回
+        return applyRanking(profession, students);
+    }
+
+    /**
+     * 更新所有学生的排名：逐个专业重排，每个专业一个事务。
+     * student_rank 只保存专业排名，全院排名在查询时按总分计算，不写入数据库
+     */
+    public RankingResult updateAllRanking() {
+        long start = System.currentTimeMillis();
+        int rowsScanned = 0;
+        int rowsUpdated = 0;
+        for (String profession : scoreItemMapper.getRankedProfessions()) {
+            RankingResult result = transactionTemplate.execute(status -> updateRankingByProfession(profession));
+            if (result != null) {
+                rowsScanned += result.getRowsScanned();
+                rowsUpdated += result.getRowsUpdated();
+            }
+        }
+
+        RankingResult result = new RankingResult();
+        result.setScope(SCOPE_ALL);
+        result.setRowsScanned(rowsScanned);
+        result.setRowsUpdated(rowsUpdated);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        recordRun("all", result.getElapsedMillis(), rowsUpdated);
+        return result;
+    }
 
+    /**
+     * 一次遍历计算名次（总分相同则并列，下一名次跳过），只把名次发生变化的学生批量写回
+     */
+    private RankingResult applyRanking(String scope, List<Map<String, Object>> students) {
+        long start = System.currentTimeMillis();
+
+        List<BigDecimal> scores = new ArrayList<>(students.size());
+        for (Map<String, Object> student : students) {
+            scores.add((BigDecimal) student.get("total_score"));
+        }
+        int[] ranks = RankingEngine.assignRanks(scores);
+
+        List<StudentRank> changed = new ArrayList<>();
         for (int i = 0; i < students.size(); i++) {
             Map<String, Object> student = students.get(i);
-            BigDecimal currentScore = (BigDecimal) student.get("total_score");
-
-            // 如果总分相同，排名并列
-            if (lastScore != null && currentScore.compareTo(lastScore) == 0) {
-                sameScoreCount++;
-            } else {
-                rank = i + 1;
-                sameScoreCount = 0;
+            Object oldRank = student.get("student_rank");
+            if (oldRank == null || ((Number) oldRank).intValue() != ranks[i]) {
+                changed.add(new StudentRank((String) student.get("id"), ranks[i]));
             }
+        }
 
-            // 更新学生排名
-            String studentId = (String) student.get("id");
-            scoreItemMapper.updateStudentRank(studentId, currentScore, rank);
+        int rowsUpdated = 0;
+        for (int from = 0; from < changed.size(); from += RANK_UPDATE_CHUNK) {
+            List<StudentRank> chunk = changed.subList(from, Math.min(from + RANK_UPDATE_CHUNK, changed.size()));
+            rowsUpdated += scoreItemMapper.batchUpdateStudentRank(chunk);
+            entityCache.evictStudents(chunk.stream().map(StudentRank::getStudentId).toList());
+        }
+
+        RankingResult result = new RankingResult();
+        result.setScope(scope);
+        result.setRowsScanned(students.size());
+        result.setRowsUpdated(rowsUpdated);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("排名更新完成: scope={}, scanned={}, updated={}, elapsed={}ms",
+                scope, result.getRowsScanned(), rowsUpdated, result.getElapsedMillis());
+        recordRun("profession", result.getElapsedMillis(), rowsUpdated);
+        return result;
+    }
+
+    /**
+     * 完整更新流程：锁住专业 → 更新总分 → 更新排名
+     */
+    @Transactional
+    public void fullUpdateForStudent(String studentId) {
+        // 1. 先锁住该学生所在专业，与同专业其他名次写回按相同顺序加锁
+        Student student = studentMapper.findByid(studentId);
+        if (student == null) {
+            return;
+        }
+        String profession = student.getProfession();
+        if (profession != null) {
+            scoreItemMapper.lockProfession(profession);
+        }
 
-            lastScore = currentScore;
+        // 2. 加锁读取后更新该学生的总分
+        student = studentMapper.findByIdForUpdate(studentId);
+        BigDecimal totalScore = calculateTotalScore(student);
+        scoreItemMapper.updateStudentTotalScore(studentId, totalScore);
+        entityCache.evictStudent(studentId);
+        syncIndexAfterCommit(student, totalScore);
+
+        // 3. 更新该专业所有学生的排名
+        if (profession != null) {
+            updateRankingByProfession(profession);
         }
     }
 
     /**
-     * 更新所有学生的排名（全院排名）
+     * 加分项审核后更新学生总分和排名，按配置选择异步入队、整个专业重排或增量调整；
+     * 索引就绪时不区分后两者，只更新总分和索引，名次由重算队列按专业合并写回
      */
     @Transactional
-    public void updateAllRanking() {
-        // 1. 获取所有学生，按总分降序排列
-        List<Map<String, Object>> students = scoreItemMapper.getAllStudentScores();
+    public void refreshStudentRanking(String studentId) {
+        if (isAsyncMode()) {
+            // 审核请求只负责入队，总分和名次由后台合并后重算
+            Student student = entityCache.getStudent(studentId);
+            if (student != null) {
+                rankingQueue.enqueueStudent(studentId, student.getProfession());
+            }
+        } else if (isIndexActive()) {
+            indexedUpdateForStudent(studentId);
+        } else {
+            // 名次写回需要锁住整个专业，放到调用方事务提交后单独执行：
+            // 审核事务已持有该学生的行锁，在其中再锁同专业的其他学生会与并发的审核互相等待
+            AfterCommit.run(() -> rerankStudent(studentId));
+        }
+    }
 
-        // 2. 计算全院排名
-        int rank = 1;
-        BigDecimal lastScore = null;
-        int sameScoreCount = 0;
+    /**
+     * 在新事务中按 FULL 或 INCREMENTAL 方式更新学生的总分和名次，失败（锁等待超时、死锁）时交给重算队列重试
+     */
+    private void rerankStudent(String studentId) {
+        try {
+            rerankTransaction.executeWithoutResult(status -> {
+                if (rankingProperties.getUpdateMode() == RankingProperties.UpdateMode.FULL) {
+                    fullUpdateForStudent(studentId);
+                } else {
+                    incrementalUpdateForStudent(studentId);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("学生排名更新失败，转入重算队列: student={}, error={}", studentId, e.getMessage());
+            Student student = entityCache.getStudent(studentId);
+            if (student != null) {
+                rankingQueue.enqueueStudent(studentId, student.getProfession());
+            }
+        }
+    }
 
-        for (int i = 0; i < students.size(); i++) {
-            Map<String, Object> student = students.get(i);
-            BigDecimal currentScore = (BigDecimal) student.get("total_score");
+    /**
+     * 增量更新：只有一个学生的总分从 oldScore 变为 newScore 时，
+     * 只有总分落在两者之间的同专业学生名次会变化（各自平移 1 名），其余学生名次不变。
+     * 前提是 student_rank 中保存的是当前一致的专业排名，否则退回整个专业重排。
+     * <p>
+     * 先锁住整个专业再读取旧总分、旧名次，同专业的名次写回依次执行；之后的判断都基于加锁读到的最新值
+     */
+    @Transactional
+    public RankingResult incrementalUpdateForStudent(String studentId) {
+        long start = System.currentTimeMillis();
 
-            // 如果总分相同，排名并列
-            if (lastScore != null && currentScore.compareTo(lastScore) == 0) {
-                sameScoreCount++;
-            } else {
-                rank = i + 1;
-                sameScoreCount = 0;
+        Student student = studentMapper.findByid(studentId);
+        if (student == null) {
+            return null;
+        }
+        String profession = student.getProfession();
+        List<Map<String, Object>> scores = profession != null
+                ? scoreItemMapper.getStudentScoresByProfession(profession)
+                : Collections.emptyList();
+
+        // 加锁后重新读取，平移区间依赖精确的旧总分和旧名次
+        student = studentMapper.findByIdForUpdate(studentId);
+        if (student == null) {
+            return null;
+        }
+        entityCache.evictStudent(studentId);
+
+        BigDecimal oldScore = student.getTotalScore();
+        BigDecimal newScore = calculateTotalScore(student);
+
+        // 不参与排名的学生只需要更新总分
+        boolean ranked = student.getProfession() != null && student.getStatus() != null && student.getStatus() == 1;
+        if (!ranked) {
+            scoreItemMapper.updateStudentTotalScore(studentId, newScore);
+            return null;
+        }
+
+        // 专业在加锁前被修改、旧总分或旧名次缺失时无法确定平移区间，整个专业重排
+        if (!student.getProfession().equals(profession) || oldScore == null || student.getStudentRank() == null) {
+            scoreItemMapper.updateStudentTotalScore(studentId, newScore);
+            return updateRankingByProfession(student.getProfession());
+        }
+
+        int rowsUpdated = 0;
+        int comparison = newScore.compareTo(oldScore);
+        if (comparison != 0) {
+            scoreItemMapper.updateStudentTotalScore(studentId, newScore);
+
+            // 加分：总分在 [old, new) 的学生被超过，名次 +1；减分：总分在 [new, old) 的学生名次 -1
+            BigDecimal low = comparison > 0 ? oldScore : newScore;
+            BigDecimal high = comparison > 0 ? newScore : oldScore;
+            List<String> shifted = new ArrayList<>();
+            int higher = 0;
+            for (Map<String, Object> row : scores) {
+                String id = (String) row.get("id");
+                BigDecimal score = (BigDecimal) row.get("total_score");
+                if (id.equals(studentId) || score == null) {
+                    continue;
+                }
+                if (score.compareTo(low) >= 0 && score.compareTo(high) < 0) {
+                    shifted.add(id);
+                }
+                if (score.compareTo(newScore) > 0) {
+                    higher++;
+                }
+            }
+            if (!shifted.isEmpty()) {
+                rowsUpdated += scoreItemMapper.shiftRanksInProfession(profession, studentId, low, high,
+                        comparison > 0 ? 1 : -1);
+                entityCache.evictStudents(shifted);
             }
 
-            // 更新学生排名
-            String studentId = (String) student.get("id");
-            scoreItemMapper.updateStudentRank(studentId, currentScore, rank);
+            int newRank = higher + 1;
+            if (newRank != student.getStudentRank()) {
+                rowsUpdated += scoreItemMapper.batchUpdateStudentRank(
+                        Collections.singletonList(new StudentRank(studentId, newRank)));
+            }
+        }
+
+        RankingResult result = new RankingResult();
+        result.setScope(profession);
+        result.setRowsScanned(scores.size());
+        result.setRowsUpdated(rowsUpdated);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.debug("增量排名更新: student={}, {} -> {}, updated={}", studentId, oldScore, newScore, rowsUpdated);
+        recordRun("incremental", result.getElapsedMillis(), rowsUpdated);
+        return result;
+    }
 
-            lastScore = currentScore;
+    /**
+     * 索引模式：只同步更新该学生的总分，提交后更新内存索引，专业名次异步写回数据库。
+     * 加锁读取学生：审核刚调整过 approved_score，共享缓存可能已被并发读取重新填入提交前的旧值
+     */
+    private void indexedUpdateForStudent(String studentId) {
+        Student student = studentMapper.findByIdForUpdate(studentId);
+        if (student == null) {
+            return;
+        }
+
+        BigDecimal newScore = calculateTotalScore(student);
+        if (student.getTotalScore() == null || newScore.compareTo(student.getTotalScore()) != 0) {
+            scoreItemMapper.updateStudentTotalScore(studentId, newScore);
+            entityCache.evictStudent(studentId);
+            syncIndexAfterCommit(student, newScore);
         }
     }
 
     /**
-     * 完整更新流程：更新总分 → 更新排名
+     * 批量审核后一次性刷新多个学生：一次查询读出基础分和加分之和，变化的总分在一个 JDBC batch 中写回，
+     * 然后每个受影响的专业只重排一次（索引模式下由内存索引更新并合并写回）
+     *
+     * @return 重新排名的专业数
      */
-    @Transactional
-    public void fullUpdateForStudent(String studentId) {
-        // 1. 更新该学生的总分
-        updateStudentTotalScore(studentId);
+    public int refreshStudentsRanking(Collection<String> studentIds) {
+        if (studentIds.isEmpty()) {
+            return 0;
+        }
+        List<Student> students = studentMapper.findByIds(studentIds);
+
+        List<Student> changedStudents = new ArrayList<>();
+        List<StudentScore> changed = new ArrayList<>();
+        Set<String> professions = new LinkedHashSet<>();
+        for (Student student : students) {
+            BigDecimal totalScore = calculateTotalScore(student);
+            if (student.getTotalScore() != null && student.getTotalScore().compareTo(totalScore) == 0) {
+                continue;
+            }
+            changedStudents.add(student);
+            changed.add(new StudentScore(student.getId(), student.getApprovedScore(), totalScore));
+            if (student.getProfession() != null && student.getStatus() != null && student.getStatus() == 1) {
+                professions.add(student.getProfession());
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ScoreItemMapper batchMapper = batchSqlSession.getMapper(ScoreItemMapper.class);
+            for (StudentScore score : changed) {
+                batchMapper.updateStudentTotalScore(score.getStudentId(), score.getTotalScore());
+            }
+        });
+        entityCache.evictStudents(changed.stream().map(StudentScore::getStudentId).toList());
+        for (int i = 0; i < changed.size(); i++) {
+            syncIndexAfterCommit(changedStudents.get(i), changed.get(i).getTotalScore());
+        }
 
-        // 2. 获取该学生的专业
+        // 索引模式下名次已由 syncIndexAfterCommit 标记为待写回，不再同步重排；否则每个专业在单独的事务中加锁重排
+        if (!isIndexActive()) {
+            for (String profession : professions) {
+                transactionTemplate.execute(status -> updateRankingByProfession(profession));
+            }
+        }
+        return professions.size();
+    }
+
+    /**
+     * 学生信息（专业、状态、总分）被直接修改后，重新同步其在排名索引中的记录
+     */
+    public void syncStudent(String studentId) {
+        if (!rankingProperties.getIndex().isEnabled()) {
+            return;
+        }
         Student student = studentMapper.findByid(studentId);
-        if (student != null && student.getProfession() != null) {
-            // 3. 更新该专业所有学生的排名
-            updateRankingByProfession(student.getProfession());
+        if (student == null) {
+            removeStudent(studentId);
+        } else {
+            syncIndexAfterCommit(student, student.getTotalScore());
+        }
+    }
+
+    /**
+     * 学生被删除后从排名索引中移除
+     */
+    public void removeStudent(String studentId) {
+        if (!rankingProperties.getIndex().isEnabled()) {
+            return;
+        }
+        AfterCommit.run(() -> rankingIndex.remove(studentId));
+    }
+
+    public boolean isAsyncMode() {
+        return rankingProperties.getUpdateMode() == RankingProperties.UpdateMode.ASYNC;
+    }
+
+    private boolean isIndexActive() {
+        return rankingProperties.getIndex().isEnabled() && rankingIndex.isReady();
+    }
+
+    /**
+     * 提交后同步排名索引。索引正在加载时同样需要记录，由重建在新快照上重放；总分为空的学生不参与排名
+     */
+    private void syncIndexAfterCommit(Student student, BigDecimal totalScore) {
+        if (!rankingProperties.getIndex().isEnabled()) {
+            return;
         }
+        boolean ranked = student.getStatus() != null && student.getStatus() == 1 && totalScore != null;
+        RankEntry entry = new RankEntry(student.getId(), student.getName(), student.getProfession(), totalScore);
+        AfterCommit.run(() -> {
+            if (ranked) {
+                rankingIndex.put(entry);
+            } else {
+                rankingIndex.remove(entry.getStudentId());
+            }
+            // 索引未就绪时名次由 updateMode 对应的流程直接写回，无需从索引写回
+            if (entry.getProfession() != null && rankingIndex.isReady()) {
+                rankingQueue.enqueueProfession(entry.getProfession());
+            }
+        });
     }
 
     /**
      * 获取学生排名信息（包括专业排名和全院排名）
+     * 索引就绪时由内存索引当前发布的快照给出，并返回快照版本和生成时间；否则读取数据库中最近一次写入的名次，快照字段为 null
      */
     public Map<String, Object> getStudentRankingInfo(String studentId) {
+        // 基础分、班级和各状态项目的分数两条路径都从数据库读取，返回的字段一致，只是名次的来源不同
         Map<String, Object> result = scoreItemMapper.getStudentWithScores(studentId);
+        if (result == null) {
+            return null;
+        }
 
-        // 如果需要将student_rank映射回rank键名，可以在这里处理
-        if (result != null && result.containsKey("student_rank")) {
-            // 复制一份，避免修改原始Map
-            result.put("rank", result.get("student_rank"));
+        RankingIndex.Position position = isIndexActive() ? rankingIndex.lookup(studentId) : null;
+        if (position != null) {
+            // 总分与名次取自同一快照，保证二者一致
+            result.put("total_score", position.getEntry().getTotalScore());
+            result.put("student_rank", position.getProfessionRank());
+            result.put("rank", position.getProfessionRank());
+            result.put("profession_count", position.getProfessionSize());
+            result.put("college_rank", position.getCollegeRank());
+            result.put("college_count", position.getCollegeSize());
+            result.put("snapshot_version", position.getVersion());
+            result.put("snapshot_computed_at", position.getComputedAt());
+            return result;
         }
 
+        // student_rank 只保存专业排名，全院排名按总分现算
+        BigDecimal totalScore = (BigDecimal) result.get("total_score");
+        String profession = (String) result.get("profession");
+        result.put("rank", result.get("student_rank"));
+        result.put("profession_count", profession != null ? scoreItemMapper.countRankedStudents(profession) : null);
+        result.put("college_rank", totalScore != null ? scoreItemMapper.rankOfScore(null, totalScore) : null);
+        result.put("college_count", scoreItemMapper.countRankedStudents(null));
+        result.put("snapshot_version", null);
+        result.put("snapshot_computed_at", null);
         return result;
     }
 
     /**
-     * 批量更新所有学生的总分（用于初始化或定时任务）
+     * 排行榜：按名次顺序返回 [offset, offset + limit) 范围内的学生，profession 为空时为全院排行。
+     * 索引就绪时直接从当前快照的有序树中取，否则按相同顺序分页查询数据库
      */
-    @Transactional
-    public void batchUpdateAllScores() {
-        // 1. 获取所有学生
-        List<Student> allStudents = studentMapper.findAll();
+    public Leaderboard getLeaderboard(String profession, int offset, int limit) {
+        if (offset < 0 || limit < 1 || limit > MAX_LEADERBOARD_SIZE) {
+            throw new IllegalArgumentException("条数应在 1 到 " + MAX_LEADERBOARD_SIZE + " 之间");
+        }
+        Leaderboard board = new Leaderboard();
+        board.setScope(profession != null ? profession : SCOPE_ALL);
+        board.setOffset(offset);
 
-        for (Student student : allStudents) {
-            updateStudentTotalScore(student.getId());
+        RankingIndex.Snapshot snapshot = isIndexActive() ? rankingIndex.current() : null;
+        if (snapshot != null) {
+            board.setTotal(snapshot.size(profession));
+            board.setList(snapshot.range(profession, offset, limit));
+            board.setSnapshotVersion(snapshot.getVersion());
+            board.setComputedAt(snapshot.getComputedAt());
+            return board;
         }
 
-        // 2. 更新所有排名
-        updateAllRanking();
+        List<Map<String, Object>> rows = scoreItemMapper.getLeaderboardPage(profession, offset, limit);
+        List<RankedStudent> list = new ArrayList<>(rows.size());
+        BigDecimal previousScore = null;
+        int rank = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            BigDecimal score = (BigDecimal) row.get("total_score");
+            if (previousScore == null) {
+                rank = scoreItemMapper.rankOfScore(profession, score);
+            } else if (score.compareTo(previousScore) != 0) {
+                rank = offset + i + 1;
+            }
+            previousScore = score;
+
+            RankedStudent student = new RankedStudent();
+            student.setRank(rank);
+            student.setStudentId((String) row.get("id"));
+            student.setName((String) row.get("name"));
+            student.setProfession((String) row.get("profession"));
+            student.setTotalScore(score);
+            list.add(student);
+        }
+        board.setTotal(scoreItemMapper.countRankedStudents(profession));
+        board.setList(list);
+        return board;
+    }
+
+    /**
+     * 学生在专业（college 为 false）或全院排名中前后各 k 名及分差，只由内存索引当前快照给出，不查询 student 表
+     *
+     * @return 学生不在排名中时返回 null
+     * @throws IllegalStateException 排名索引未启用或未就绪
+     */
+    public RankingIndex.Neighbors getStudentNeighbors(String studentId, boolean college, int k) {
+        if (k < 1 || k > MAX_NEIGHBORS) {
+            throw new IllegalArgumentException("k 应在 1 到 " + MAX_NEIGHBORS + " 之间");
+        }
+        RankingIndex.Snapshot snapshot = isIndexActive() ? rankingIndex.current() : null;
+        if (snapshot == null) {
+            throw new IllegalStateException("排名索引未就绪，请稍后重试");
+        }
+        return snapshot.neighbors(studentId, college, k);
+    }
+
+    /**
+     * 批量更新所有学生的总分（用于初始化），随后逐个专业重排并重建内存索引
+     */
+    public BatchScoreResult batchUpdateAllScores() {
+        BatchScoreResult result = recalculateScores();
+
+        // 更新所有专业排名（每个专业一个事务）
+        result.setRanking(updateAllRanking());
+
+        // 总分整体变化后重建内存索引
+        loadRankingIndex();
+        return result;
+    }
+
+    /**
+     * 重算所有学生的加分之和与总分，不更新名次。
+     * 一次分组查询汇总加分，在内存中计算总分，只把变化的加分之和与总分按批写回，每批单独提交，避免长时间锁住整张 student 表
+     */
+    public BatchScoreResult recalculateScores() {
+        return recalculateScores(() -> {
+        });
+    }
+
+    /**
+     * 重算所有学生的加分之和与总分，每批提交后执行 afterChunk（如定时任务续约），afterChunk 抛出异常时中止后续批次
+     */
+    public BatchScoreResult recalculateScores(Runnable afterChunk) {
+        long start = System.currentTimeMillis();
+
+        // 1. 汇总所有学生通过审核的加分
+        Map<String, BigDecimal> approvedScores = new HashMap<>();
+        for (Map<String, Object> row : scoreItemMapper.sumApprovedScoreGroupByStudent()) {
+            approvedScores.put((String) row.get("student_id"), (BigDecimal) row.get("approved_score"));
+        }
+
+        // 2. 计算总分 = 基础分 + 加分，只保留加分之和或总分发生变化的学生
+        List<Map<String, Object>> students = scoreItemMapper.getStudentBaseScores();
+        List<StudentScore> changed = new ArrayList<>();
+        for (Map<String, Object> student : students) {
+            String studentId = (String) student.get("id");
+            BigDecimal approvedScore = scoreOrZero(approvedScores.get(studentId));
+            BigDecimal totalScore = scoreOrZero((BigDecimal) student.get("base_score")).add(approvedScore);
+            BigDecimal oldApproved = (BigDecimal) student.get("approved_score");
+            BigDecimal oldScore = (BigDecimal) student.get("total_score");
+            if (oldScore == null || oldScore.compareTo(totalScore) != 0
+                    || oldApproved == null || oldApproved.compareTo(approvedScore) != 0) {
+                changed.add(new StudentScore(studentId, approvedScore, totalScore));
+            }
+        }
+
+        // 3. 分批写回，每批一个事务、一个 JDBC batch
+        int chunks = writeScores(changed, afterChunk);
+
+        BatchScoreResult result = new BatchScoreResult();
+        result.setStudentsScanned(students.size());
+        result.setRowsUpdated(changed.size());
+        result.setChunks(chunks);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("批量总分更新完成: scanned={}, updated={}, chunks={}, elapsed={}ms",
+                students.size(), changed.size(), chunks, result.getElapsedMillis());
+        recordRun("batch-scores", result.getElapsedMillis(), changed.size());
+
+        entityCache.evictAllStudents();
+        return result;
+    }
+
+    /**
+     * 核对物化的加分之和：由数据库比较 approved_score 与实际通过项目之和，只修复不一致的学生。
+     * 修复是带条件的 UPDATE，核对之后又被审核调整过的学生留给下一轮；总分和名次交给排名流程按修复后的值重算
+     *
+     * @return 修复的学生数
+     */
+    public int repairScoreDrift() {
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> drift = scoreItemMapper.findScoreDrift();
+        if (drift.isEmpty()) {
+            return 0;
+        }
+
+        List<String> repaired = new ArrayList<>(drift.size());
+        for (Map<String, Object> row : drift) {
+            String studentId = (String) row.get("id");
+            if (scoreItemMapper.repairApprovedScore(studentId, (BigDecimal) row.get("approved_score")) > 0) {
+                repaired.add(studentId);
+                log.warn("加分之和不一致: student={}, approved_score={} -> {}", studentId,
+                        row.get("approved_score"), row.get("actual_approved_score"));
+            }
+        }
+        if (!repaired.isEmpty()) {
+            entityCache.evictStudents(repaired);
+            if (isAsyncMode()) {
+                repaired.forEach(this::refreshStudentRanking);
+            } else {
+                refreshStudentsRanking(repaired);
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("加分之和核对完成: drift={}, repaired={}, elapsed={}ms", drift.size(), repaired.size(), elapsed);
+        recordRun("verify-scores", elapsed, repaired.size());
+        return repaired.size();
+    }
+
+    /**
+     * 分批写回加分之和与总分，每批一个事务、一个 JDBC batch，每批提交后执行 afterChunk，返回批次数
+     */
+    private int writeScores(List<StudentScore> scores, Runnable afterChunk) {
+        int chunkSize = Math.max(1, rankingProperties.getBatchChunkSize());
+        int chunks = 0;
+        for (int from = 0; from < scores.size(); from += chunkSize) {
+            List<StudentScore> chunk = scores.subList(from, Math.min(from + chunkSize, scores.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                ScoreItemMapper batchMapper = batchSqlSession.getMapper(ScoreItemMapper.class);
+                for (StudentScore score : chunk) {
+                    batchMapper.updateStudentScores(score.getStudentId(), score.getApprovedScore(), score.getTotalScore());
+                }
+            });
+            chunks++;
+            afterChunk.run();
+        }
+        return chunks;
+    }
+
+    /**
+     * 排名任务指标：baoyan.ranking.runs（耗时）、baoyan.ranking.rows.updated（写回行数），按 kind 区分
+     */
+    private void recordRun(String kind, long elapsedMillis, int rowsUpdated) {
+        Timer.builder("baoyan.ranking.runs")
+                .description("排名及总分重算耗时")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .record(elapsedMillis, TimeUnit.MILLISECONDS);
+        DistributionSummary.builder("baoyan.ranking.rows.updated")
+                .description("排名及总分重算写回的行数")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .record(rowsUpdated);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class StudentScore {
+        private final String studentId;
+        private final BigDecimal approvedScore;
+        private final BigDecimal totalScore;
     }
-}
\ No newline at end of file
+}
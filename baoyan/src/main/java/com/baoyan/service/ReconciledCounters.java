@@ -0,0 +1,124 @@
+package com.baoyan.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 常驻内存的计数器：首次读取时从数据库加载，写操作在事务提交后增量调整，定期重新加载对账。
+ * <p>
+ * 重新加载期间不持有调整用的锁，期间提交的调整照常作用于当前计数器并记入日志，
+ * 加载完成后在新结果上重放再替换，不会被对账结果覆盖。
+ *
+ * @param <T> 计数器状态，只在持有锁时由 update 的回调修改
+ */
+@Slf4j
+public class ReconciledCounters<T> {
+
+    private final String name;
+    private final Supplier<T> loader;
+
+    // 调整与替换互斥
+    private final Object lock = new Object();
+    // 加载之间互斥
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile T counters;
+    // 加载进行中时记录期间的调整，由 lock 保护；不在加载时为 null
+    private List<Consumer<T>> journal;
+
+    public ReconciledCounters(String name, Supplier<T> loader) {
+        this.name = name;
+        this.loader = loader;
+    }
+
+    /**
+     * 当前计数器，尚未加载时先从数据库加载
+     */
+    public T get() {
+        T current = counters;
+        if (current == null) {
+            reloadLock.lock();
+            try {
+                if (counters == null) {
+                    reload();
+                }
+                current = counters;
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 事务提交后调整计数器；尚未加载且没有进行中的加载时无需处理，首次读取时会从数据库加载
+     */
+    public void update(Consumer<T> action) {
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                if (journal != null) {
+                    journal.add(action);
+                }
+                T current = counters;
+                if (current != null) {
+                    action.accept(current);
+                }
+            }
+        });
+    }
+
+    /**
+     * 启动完成后预先加载，数据库不可用时推迟到首次读取
+     */
+    public void warmUp() {
+        try {
+            get();
+        } catch (Exception e) {
+            log.warn("{}初始化失败，将在首次读取时重试: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 重新从数据库加载，纠正并发或外部修改造成的偏差；尚未加载时跳过
+     */
+    public void reconcile() {
+        if (counters == null) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("{}对账失败: {}", name, e.getMessage());
+        }
+    }
+
+    private void reload() {
+        reloadLock.lock();
+        try {
+            synchronized (lock) {
+                journal = new ArrayList<>();
+            }
+            T loaded;
+            try {
+                loaded = loader.get();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    journal = null;
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                journal.forEach(action -> action.accept(loaded));
+                journal = null;
+                counters = loaded;
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.baoyan.service;
+
+import com.baoyan.config.SchemaProperties;
+import com.baoyan.mapper.SchemaMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 启动后检查热点查询依赖的联合索引（db/migration/V3__hot_query_indexes.sql）是否存在。
+ * 未执行迁移的库缺少索引时待审核列表、排名等查询会退化为全表扫描，这里只输出告警，不阻止启动。
+ */
+@Slf4j
+@Service
+public class SchemaIndexCheck {
+
+    /**
+     * 表名 -> 期望存在的索引名，与迁移脚本保持一致
+     */
+    static final Map<String, List<String>> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("score_item", List.of(
+                "idx_score_item_status_time",
+                "idx_score_item_student_time",
+                "idx_score_item_status_student_score",
+                "idx_score_item_auditor_status_time",
+                "idx_score_item_category_status_score",
+                "idx_score_item_create_time"));
+        EXPECTED_INDEXES.put("student", List.of(
+                "idx_student_profession_score",
+                "idx_student_status_score"));
+        EXPECTED_INDEXES.put("teacher", List.of("idx_teacher_profession"));
+        EXPECTED_INDEXES.put("admin", List.of("idx_admin_username"));
+    }
+
+    @Resource
+    private SchemaMapper schemaMapper;
+
+    @Resource
+    private SchemaProperties schemaProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (!schemaProperties.isIndexCheckEnabled()) {
+            return;
+        }
+        try {
+            List<String> missing = findMissingIndexes();
+            if (missing.isEmpty()) {
+                log.info("索引检查通过");
+            } else {
+                missing.forEach(index -> log.warn("缺少索引 {}，请执行 db/migration 下的迁移脚本", index));
+            }
+        } catch (Exception e) {
+            log.warn("索引检查失败，已跳过: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 缺失的索引，格式为 表名.索引名
+     */
+    public List<String> findMissingIndexes() {
+        Set<String> existing = new HashSet<>();
+        for (Map<String, Object> row : schemaMapper.findIndexes()) {
+            existing.add(row.get("table_name") + "." + row.get("index_name"));
+        }
+
+        List<String> missing = new ArrayList<>();
+        EXPECTED_INDEXES.forEach((table, indexes) -> {
+            for (String index : indexes) {
+                if (!existing.contains(table + "." + index)) {
+                    missing.add(table + "." + index);
+                }
+            }
+        });
+        return missing;
+    }
+}
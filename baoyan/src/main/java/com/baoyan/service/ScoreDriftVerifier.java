@@ -0,0 +1,28 @@
+package com.baoyan.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 后台核对 student.approved_score：差值维护在并发或外部修改下可能产生偏差，定期按实际通过项目之和修复
+ */
+@Slf4j
+@Component
+public class ScoreDriftVerifier {
+
+    @Resource
+    private RankingService rankingService;
+
+    @Scheduled(fixedDelayString = "${baoyan.ranking.score-verify-interval-ms:3600000}",
+            initialDelayString = "${baoyan.ranking.score-verify-interval-ms:3600000}")
+    public void verify() {
+        try {
+            rankingService.repairScoreDrift();
+        } catch (Exception e) {
+            log.warn("加分之和核对失败: {}", e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,45 @@
 package com.baoyan.service;
 
+import com.baoyan.config.BatchSqlSession;
+import com.baoyan.config.CacheProperties;
 import com.baoyan.entity.ScoreItem;
 import com.baoyan.mapper.ScoreItemMapper;
-import lombok.Getter;
-import lombok.Setter;
+import com.baoyan.vo.AuditDecision;
+import com.baoyan.vo.BatchAuditResult;
+import com.baoyan.vo.Page;
+import com.baoyan.vo.PageCursor;
+import com.baoyan.vo.ScoreItemSummary;
+import com.baoyan.vo.StudentItemStats;
+import com.baoyan.vo.TeacherAuditStats;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.ibatis.cursor.Cursor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.BatchResult;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 
+@Slf4j
 @Service
 public class ScoreItemService {
 
@@ -19,6 +47,33 @@ public class ScoreItemService {
     private ScoreItemMapper scoreItemMapper;
     @Resource
     private RankingService rankingService;
+    @Resource
+    private CountCache countCache;
+    @Resource
+    private EntityCache entityCache;
+    @Resource
+    private CacheProperties cacheProperties;
+    @Resource
+    private AuditStatsProvider auditStatsProvider;
+    @Resource
+    private BatchSqlSession batchSqlSession;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    // 单次批量审核最多处理的项目数
+    private static final int MAX_BATCH_AUDIT = 1000;
+
+    // 学生项目统计缓存，按学生 id 缓存
+    private Cache<String, StudentItemStats> studentStatsCache;
+
+    @PostConstruct
+    public void init() {
+        studentStatsCache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getEntityMaxSize())
+                .expireAfterWrite(Duration.ofMillis(cacheProperties.getStudentStatsTtlMs()))
+                .recordStats()
+                .build();
+    }
     // ========== 学生相关方法 ==========
 
     /**
@@ -32,20 +87,23 @@ public class ScoreItemService {
         scoreItem.setUpdateTime(LocalDateTime.now());
 
         scoreItemMapper.insert(scoreItem);
+        countCache.adjust(CountCache.PENDING_ITEMS, 1);
+        auditStatsProvider.onSubmitted();
+        evictStudentStats(scoreItem.getStudentId());
         return scoreItem;
     }
 
     /**
      * 学生查看自己的项目列表
      */
-    public List<ScoreItem> getStudentItems(String studentId) {
+    public List<ScoreItemSummary> getStudentItems(String studentId) {
         return scoreItemMapper.findByStudentId(studentId);
     }
 
     /**
      * 学生查看特定状态的项目
      */
-    public List<ScoreItem> getStudentItemsByStatus(String studentId, Integer status) {
+    public List<ScoreItemSummary> getStudentItemsByStatus(String studentId, Integer status) {
         return scoreItemMapper.findByStudentIdAndStatus(studentId, status);
     }
 
@@ -54,7 +112,15 @@ public class ScoreItemService {
      */
     @Transactional
     public boolean resubmitItem(Long itemId, String studentId) {
+        // 记下原审核人，用于回退其驳回计数（写事务内加锁读取数据库，不读缓存）
+        ScoreItem previous = scoreItemMapper.findByIdForUpdate(itemId);
         int rows = scoreItemMapper.resubmitItem(itemId, studentId);
+        countCache.adjust(CountCache.PENDING_ITEMS, rows);
+        if (rows > 0) {
+            auditStatsProvider.onResubmitted(previous != null ? previous.getAuditorId() : null);
+            entityCache.evictItem(itemId);
+            evictStudentStats(studentId);
+        }
         return rows > 0;
     }
 
@@ -63,29 +129,49 @@ public class ScoreItemService {
     /**
      * 老师获取待审核项目列表
      */
-    public List<ScoreItem> getPendingItems() {
+    public List<ScoreItemSummary> getPendingItems() {
         return scoreItemMapper.findPendingItems();
     }
 
     /**
      * 老师获取待审核项目列表（分页）
      */
-    public List<ScoreItem> getPendingItemsByPage(Integer pageNum, Integer pageSize) {
+    public List<ScoreItemSummary> getPendingItemsByPage(Integer pageNum, Integer pageSize) {
         Integer offset = (pageNum - 1) * pageSize;
         return scoreItemMapper.findPendingItemsByPage(offset, pageSize);
     }
 
+    /**
+     * 老师获取待审核项目列表（游标分页），cursor 为空时返回第一页
+     */
+    public Page<ScoreItemSummary> getPendingItemsAfter(String cursor, Integer pageSize) {
+        Page.checkPageSize(pageSize);
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = PageCursor.decode(cursor, 2);
+            try {
+                afterTime = LocalDateTime.parse(keys[0]);
+                afterId = Long.valueOf(keys[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的分页游标", e);
+            }
+        }
+        List<ScoreItemSummary> items = scoreItemMapper.findPendingItemsAfter(afterTime, afterId, pageSize + 1);
+        return Page.ofKeyset(items, pageSize, last -> PageCursor.encode(last.getCreateTime(), last.getId()));
+    }
+
     /**
      * 获取待审核项目总数
      */
     public Integer countPendingItems() {
-        return scoreItemMapper.countPendingItems();
+        return countCache.get(CountCache.PENDING_ITEMS, scoreItemMapper::countPendingItems);
     }
 
     /**
      * 老师获取已审核项目列表
      */
-    public List<ScoreItem> getProcessedItemsByTeacher(String teacherId) {
+    public List<ScoreItemSummary> getProcessedItemsByTeacher(String teacherId) {
         return scoreItemMapper.findProcessedItemsByTeacher(teacherId);
     }
 
@@ -94,8 +180,8 @@ public class ScoreItemService {
      */
     @Transactional
     public boolean approveItem(Long itemId, String teacherId, String teacherName, String auditNote) {
-        // 验证项目是否存在且为待审核状态
-        ScoreItem item = scoreItemMapper.findById(itemId);
+        // 验证项目是否存在且为待审核状态：加锁读取数据库，分数以此为准调整加分之和，不读可能过期的缓存
+        ScoreItem item = scoreItemMapper.findByIdForUpdate(itemId);
         if (item == null || !item.isPending()) {
             return false;
         }
@@ -104,9 +190,14 @@ public class ScoreItemService {
         int rows = scoreItemMapper.approveItem(itemId, teacherId, teacherName, auditNote);
         boolean success = rows > 0;
 
-        // 如果审核通过，更新学生的总分和排名
+        // 如果审核通过，调整学生的加分之和，再更新总分和排名
         if (success) {
-            rankingService.fullUpdateForStudent(item.getStudentId());
+            adjustApprovedScore(item.getStudentId(), item.getItemScore());
+            countCache.adjust(CountCache.PENDING_ITEMS, -1);
+            auditStatsProvider.onApproved(teacherId);
+            entityCache.evictItem(itemId);
+            evictStudentStats(item.getStudentId());
+            rankingService.refreshStudentRanking(item.getStudentId());
         }
 
         return success;
@@ -117,8 +208,8 @@ public class ScoreItemService {
      */
     @Transactional
     public boolean rejectItem(Long itemId, String teacherId, String teacherName, String rejectReason) {
-        // 验证项目是否存在且为待审核状态
-        ScoreItem item = scoreItemMapper.findById(itemId);
+        // 验证项目是否存在且为待审核状态（加锁读取数据库）
+        ScoreItem item = scoreItemMapper.findByIdForUpdate(itemId);
         if (item == null || !item.isPending()) {
             return false;
         }
@@ -133,28 +224,302 @@ public class ScoreItemService {
 
         // 如果驳回，也需要更新排名（因为可能有之前通过的被撤销）
         if (success) {
-            rankingService.fullUpdateForStudent(item.getStudentId());
+            countCache.adjust(CountCache.PENDING_ITEMS, -1);
+            auditStatsProvider.onRejected(teacherId);
+            entityCache.evictItem(itemId);
+            evictStudentStats(item.getStudentId());
+            rankingService.refreshStudentRanking(item.getStudentId());
         }
 
         return success;
     }
+
+    /**
+     * 批量审核：所有状态变更在一个事务、一个 JDBC batch 中完成，
+     * 之后对审核通过涉及的学生统一重算总分，每个受影响的专业只重排一次。
+     * 驳回的项目原本就是待审核状态，不影响总分，无需重排。
+     */
+    public BatchAuditResult batchAudit(String teacherId, String teacherName, List<AuditDecision> decisions) {
+        if (decisions == null || decisions.isEmpty()) {
+            throw new IllegalArgumentException("审核项目不能为空");
+        }
+        if (decisions.size() > MAX_BATCH_AUDIT) {
+            throw new IllegalArgumentException("单次最多审核" + MAX_BATCH_AUDIT + "个项目");
+        }
+        long start = System.currentTimeMillis();
+
+        // 1. 一次查询加载所有项目，逐个校验
+        Set<Long> ids = new HashSet<>();
+        for (AuditDecision decision : decisions) {
+            if (decision.getId() != null) {
+                ids.add(decision.getId());
+            }
+        }
+        Map<Long, ScoreItem> items = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (ScoreItem item : scoreItemMapper.findByIds(ids)) {
+                items.put(item.getId(), item);
+            }
+        }
+
+        BatchAuditResult.ItemOutcome[] outcomes = new BatchAuditResult.ItemOutcome[decisions.size()];
+        List<Integer> approvals = new ArrayList<>();
+        List<Integer> rejections = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            AuditDecision decision = decisions.get(i);
+            String error = validateDecision(decision, items.get(decision.getId()), seen);
+            if (error != null) {
+                outcomes[i] = new BatchAuditResult.ItemOutcome(decision.getId(), decision.getAction(), false, error);
+            } else if (AuditDecision.APPROVE.equals(decision.getAction())) {
+                approvals.add(i);
+            } else {
+                rejections.add(i);
+            }
+        }
+
+        // 2. 通过、驳回各自连续执行，MyBatis 把相同语句归为一组，flush 结果按调用顺序对应
+        List<Integer> applied = new ArrayList<>(approvals);
+        applied.addAll(rejections);
+        if (!applied.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                ScoreItemMapper batchMapper = batchSqlSession.getMapper(ScoreItemMapper.class);
+
+                // 加锁读取要通过的项目：预读之后其他事务可能已修改分数，加分之和按加锁读到的分数调整
+                Map<Long, ScoreItem> locked = new HashMap<>();
+                if (!approvals.isEmpty()) {
+                    Set<Long> approvalIds = new HashSet<>();
+                    approvals.forEach(i -> approvalIds.add(decisions.get(i).getId()));
+                    for (ScoreItem item : batchMapper.findByIdsForUpdate(approvalIds)) {
+                        locked.put(item.getId(), item);
+                    }
+                }
+
+                for (int i : approvals) {
+                    batchMapper.approveItem(decisions.get(i).getId(), teacherId, teacherName, decisions.get(i).getNote());
+                }
+                for (int i : rejections) {
+                    batchMapper.rejectItem(decisions.get(i).getId(), teacherId, teacherName, decisions.get(i).getNote());
+                }
+
+                int[] counts = new int[applied.size()];
+                boolean noInfo = false;
+                int k = 0;
+                for (BatchResult batchResult : batchSqlSession.flushStatements()) {
+                    for (int count : batchResult.getUpdateCounts()) {
+                        noInfo |= count == Statement.SUCCESS_NO_INFO;
+                        counts[k++] = count;
+                    }
+                }
+
+                // 驱动改写批量语句时只返回 SUCCESS_NO_INFO，无法区分是否命中 status = 0 条件，
+                // 在同一事务内回读项目，只有已变为目标状态且审核人是本人的才算本次审核生效
+                Map<Long, ScoreItem> current = new HashMap<>();
+                if (noInfo) {
+                    Set<Long> appliedIds = new HashSet<>();
+                    applied.forEach(i -> appliedIds.add(decisions.get(i).getId()));
+                    for (ScoreItem item : batchMapper.findByIds(appliedIds)) {
+                        current.put(item.getId(), item);
+                    }
+                }
+
+                Map<String, BigDecimal> approvedDeltas = new HashMap<>();
+                for (k = 0; k < counts.length; k++) {
+                    int i = applied.get(k);
+                    AuditDecision decision = decisions.get(i);
+                    boolean approve = AuditDecision.APPROVE.equals(decision.getAction());
+                    boolean success = counts[k] == Statement.SUCCESS_NO_INFO
+                            ? auditedBy(current.get(decision.getId()), approve, teacherId)
+                            : counts[k] > 0;
+                    String message = !success ? "项目状态已变化" : approve ? "审核通过成功" : "驳回成功";
+                    outcomes[i] = new BatchAuditResult.ItemOutcome(decision.getId(), decision.getAction(), success, message);
+                    if (success && approve) {
+                        ScoreItem item = locked.get(decision.getId());
+                        approvedDeltas.merge(item.getStudentId(), scoreOrZero(item.getItemScore()), BigDecimal::add);
+                    }
+                }
+
+                // 同一事务内按学生合并调整加分之和，随提交一起发送
+                approvedDeltas.forEach(batchMapper::addApprovedScore);
+            });
+        }
+
+        // 3. 提交后统一更新计数和缓存，收集需要重算总分的学生
+        int approved = 0;
+        int rejected = 0;
+        Set<String> approvedStudents = new LinkedHashSet<>();
+        for (int i : applied) {
+            if (!outcomes[i].getSuccess()) {
+                continue;
+            }
+            ScoreItem item = items.get(decisions.get(i).getId());
+            if (AuditDecision.APPROVE.equals(decisions.get(i).getAction())) {
+                approved++;
+                auditStatsProvider.onApproved(teacherId);
+                approvedStudents.add(item.getStudentId());
+                entityCache.evictStudent(item.getStudentId());
+            } else {
+                rejected++;
+                auditStatsProvider.onRejected(teacherId);
+            }
+            entityCache.evictItem(item.getId());
+            evictStudentStats(item.getStudentId());
+        }
+        countCache.adjust(CountCache.PENDING_ITEMS, -(approved + rejected));
+
+        // 4. 每个专业只重排一次，异步模式下交给重算队列
+        int professionsReranked = 0;
+        if (rankingService.isAsyncMode()) {
+            approvedStudents.forEach(rankingService::refreshStudentRanking);
+        } else {
+            professionsReranked = rankingService.refreshStudentsRanking(approvedStudents);
+        }
+
+        BatchAuditResult result = new BatchAuditResult();
+        result.setItems(Arrays.asList(outcomes));
+        result.setApprovedCount(approved);
+        result.setRejectedCount(rejected);
+        result.setFailedCount(decisions.size() - approved - rejected);
+        result.setStudentsUpdated(approvedStudents.size());
+        result.setProfessionsReranked(professionsReranked);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("批量审核完成: teacher={}, approved={}, rejected={}, failed={}, professions={}, elapsed={}ms",
+                teacherId, approved, rejected, result.getFailedCount(), professionsReranked, result.getElapsedMillis());
+        return result;
+    }
+
+    private static boolean auditedBy(ScoreItem item, boolean approve, String teacherId) {
+        int target = approve ? ScoreItem.Status.APPROVED : ScoreItem.Status.REJECTED;
+        return item != null && item.getStatus() != null && item.getStatus() == target
+                && item.getAuditorId() != null && item.getAuditorId().equals(teacherId);
+    }
+
+    private static String validateDecision(AuditDecision decision, ScoreItem item, Set<Long> seen) {
+        if (decision.getId() == null) {
+            return "项目ID不能为空";
+        }
+        String action = decision.getAction();
+        if (!AuditDecision.APPROVE.equals(action) && !AuditDecision.REJECT.equals(action)) {
+            return "审核操作只能是 approve 或 reject";
+        }
+        if (!seen.add(decision.getId())) {
+            return "项目重复提交";
+        }
+        if (AuditDecision.REJECT.equals(action)
+                && (decision.getNote() == null || decision.getNote().trim().isEmpty())) {
+            return "驳回原因不能为空";
+        }
+        if (item == null || !item.isPending()) {
+            return "审核失败：项目不存在或状态不正确";
+        }
+        return null;
+    }
     // ========== 通用方法 ==========
 
+    /**
+     * 修改项目内容，已通过的项目修改分数时按差值调整学生的加分之和并更新排名
+     */
+    @Transactional
+    public boolean updateItem(ScoreItem scoreItem) {
+        ScoreItem existing = scoreItemMapper.findByIdForUpdate(scoreItem.getId());
+        if (existing == null) {
+            return false;
+        }
+        scoreItemMapper.update(scoreItem);
+        entityCache.evictItem(existing.getId());
+        evictStudentStats(existing.getStudentId());
+
+        if (existing.isApproved()) {
+            BigDecimal delta = scoreOrZero(scoreItem.getItemScore()).subtract(scoreOrZero(existing.getItemScore()));
+            if (delta.signum() != 0) {
+                adjustApprovedScore(existing.getStudentId(), delta);
+                rankingService.refreshStudentRanking(existing.getStudentId());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 删除项目，已通过的项目从学生的加分之和中扣除并更新排名
+     */
+    @Transactional
+    public boolean deleteItem(Long id) {
+        ScoreItem existing = scoreItemMapper.findByIdForUpdate(id);
+        if (existing == null) {
+            return false;
+        }
+        scoreItemMapper.deleteById(id);
+        entityCache.evictItem(id);
+        evictStudentStats(existing.getStudentId());
+        auditStatsProvider.onDeleted(existing.getStatus(), existing.getAuditorId());
+
+        if (existing.isPending()) {
+            countCache.adjust(CountCache.PENDING_ITEMS, -1);
+        } else if (existing.isApproved()) {
+            adjustApprovedScore(existing.getStudentId(), scoreOrZero(existing.getItemScore()).negate());
+            rankingService.refreshStudentRanking(existing.getStudentId());
+        }
+        return true;
+    }
+
+    /**
+     * 逐行读取所有加分项目（导出用），游标需要在事务内保持连接打开
+     */
+    @Transactional(readOnly = true)
+    public void streamAllItems(Consumer<ScoreItem> consumer) {
+        try (Cursor<ScoreItem> cursor = scoreItemMapper.streamAllItems()) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * 获取项目详情
      */
     public ScoreItem getItemDetail(Long id) {
-        return scoreItemMapper.findById(id);
+        return entityCache.getItem(id);
+    }
+
+    /**
+     * 学生项目统计：数据库一次聚合查询，结果按学生缓存，该学生的项目有写操作时失效
+     */
+    public StudentItemStats getStudentStats(String studentId) {
+        return studentStatsCache.get(studentId, scoreItemMapper::getStudentItemStats);
+    }
+
+    public Map<String, Object> studentStatsCacheStats() {
+        return EntityCache.describe(studentStatsCache.stats(), studentStatsCache.estimatedSize());
+    }
+
+    /**
+     * 项目进入或离开通过状态时按差值调整学生的加分之和（一条算术 UPDATE），偏差由 ScoreDriftVerifier 定期修复
+     */
+    private void adjustApprovedScore(String studentId, BigDecimal delta) {
+        if (delta == null || delta.signum() == 0) {
+            return;
+        }
+        scoreItemMapper.addApprovedScore(studentId, delta);
+        entityCache.evictStudent(studentId);
+    }
+
+    private static BigDecimal scoreOrZero(BigDecimal score) {
+        return score != null ? score : BigDecimal.ZERO;
+    }
+
+    private void evictStudentStats(String studentId) {
+        if (studentId == null) {
+            return;
+        }
+        studentStatsCache.invalidate(studentId);
+        AfterCommit.runAfterCompletion(() -> studentStatsCache.invalidate(studentId));
     }
 
     /**
      * 老师审核统计
      */
     public TeacherAuditStats getTeacherStats(String teacherId) {
-        TeacherAuditStats stats = new TeacherAuditStats();
-        stats.setPendingCount(scoreItemMapper.countPendingItems());
-        stats.setApprovedCount(scoreItemMapper.countApprovedByTeacher(teacherId));
-        stats.setRejectedCount(scoreItemMapper.countRejectedByTeacher(teacherId));
+        TeacherAuditStats stats = auditStatsProvider.getTeacherStats(teacherId);
 
         // 计算通过率
         int total = stats.getApprovedCount() + stats.getRejectedCount();
@@ -166,20 +531,4 @@ public class ScoreItemService {
 
         return stats;
     }
-
-    // ========== 内部类 ==========
-
-    /**
-     * 老师审核统计DTO
-     */
-    @Setter
-    @Getter
-    public static class TeacherAuditStats {
-        // getter/setter 方法
-        private Integer pendingCount;    // 待审核数量
-        private Integer approvedCount;   // 通过数量
-        private Integer rejectedCount;   // 驳回数量
-        private Double approvalRate;     // 通过率
-
-    }
 }
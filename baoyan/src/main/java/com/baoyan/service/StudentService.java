@@ -0,0 +1,48 @@
+package com.baoyan.service;
+
+import com.baoyan.entity.Student;
+import com.baoyan.mapper.StudentMapper;
+import com.baoyan.vo.Page;
+import com.baoyan.vo.PageCursor;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Service
+public class StudentService {
+
+    @Resource
+    private StudentMapper studentMapper;
+
+    /**
+     * 逐行读取所有学生并交给 consumer 处理，内存占用与表大小无关
+     * 游标需要在事务内保持连接打开
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Student> consumer) {
+        try (Cursor<Student> cursor = studentMapper.streamAll()) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 游标分页查询，cursor 为空时返回第一页
+     */
+    public Page<Student> getStudentsAfter(String cursor, Integer pageSize) {
+        Page.checkPageSize(pageSize);
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            afterId = PageCursor.decode(cursor, 1)[0];
+        }
+        List<Student> students = studentMapper.findAfter(afterId, pageSize + 1);
+        return Page.ofKeyset(students, pageSize, last -> PageCursor.encode(last.getId()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.baoyan.service;
+
+import com.baoyan.mapper.AdminMapper;
+import com.baoyan.mapper.StudentMapper;
+import com.baoyan.mapper.TeacherMapper;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 系统统计：学生、教师、管理员总数与分页总数共用 CountCache（写操作提交后增减，TTL 到期重新查询），
+ * 加分项目数量取自 AuditStatsProvider，管理端读取通常不访问数据库。
+ */
+@Service
+public class SystemStatsService {
+
+    @Resource
+    private StudentMapper studentMapper;
+
+    @Resource
+    private TeacherMapper teacherMapper;
+
+    @Resource
+    private AdminMapper adminMapper;
+
+    @Resource
+    private CountCache countCache;
+
+    @Resource
+    private AuditStatsProvider auditStatsProvider;
+
+    /**
+     * 管理端系统统计
+     */
+    public Map<String, Object> getSystemStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalStudents", countCache.get(CountCache.STUDENTS, studentMapper::countStudents));
+        stats.put("totalTeachers", countCache.get(CountCache.TEACHERS, teacherMapper::countTeachers));
+        stats.put("totalAdmins", countCache.get(CountCache.ADMINS, adminMapper::countAdmins));
+        stats.putAll(auditStatsProvider.getItemTotals());
+        stats.put("systemStatus", "正常");
+        return stats;
+    }
+}
@@ -2,6 +2,8 @@ package com.baoyan.service;
 
 import com.baoyan.entity.Teacher;
 import com.baoyan.mapper.TeacherMapper;
+import com.baoyan.vo.Page;
+import com.baoyan.vo.PageCursor;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -13,6 +15,9 @@ public class TeacherService {
     @Resource
     private  TeacherMapper teacherMapper;
 
+    @Resource
+    private CountCache countCache;
+
     // 教师登录
     public Teacher login(String id, String password) {
         return teacherMapper.login(id, password);
@@ -31,6 +36,7 @@ public class TeacherService {
     // 添加教师
     public void addTeacher(Teacher teacher) {
         teacherMapper.save(teacher);
+        countCache.adjust(CountCache.TEACHERS, 1);
     }
 
     // 更新教师
@@ -40,7 +46,8 @@ public class TeacherService {
 
     // 删除教师
     public void deleteTeacher(String id) {
-        teacherMapper.deleteById(id);
+        int rows = teacherMapper.deleteById(id);
+        countCache.adjust(CountCache.TEACHERS, -rows);
     }
 
     // 分页查询
@@ -49,8 +56,19 @@ public class TeacherService {
         return teacherMapper.findByPage(offset, pageSize);
     }
 
+    // 游标分页查询，cursor 为空时返回第一页
+    public Page<Teacher> getTeachersAfter(String cursor, Integer pageSize) {
+        Page.checkPageSize(pageSize);
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            afterId = PageCursor.decode(cursor, 1)[0];
+        }
+        List<Teacher> teachers = teacherMapper.findAfter(afterId, pageSize + 1);
+        return Page.ofKeyset(teachers, pageSize, last -> PageCursor.encode(last.getId()));
+    }
+
     // 获取教师总数
     public Integer countTeachers() {
-        return teacherMapper.countTeachers();
+        return countCache.get(CountCache.TEACHERS, teacherMapper::countTeachers);
     }
 }
@@ -0,0 +1,13 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+@Data
+public class AuditDecision {
+    public static final String APPROVE = "approve";
+    public static final String REJECT = "reject";
+
+    private Long id;          // 加分项目ID
+    private String action;    // approve 或 reject
+    private String note;      // 通过时为审核备注，驳回时为驳回原因（必填）
+}
@@ -0,0 +1,12 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchAuditRequest {
+    private String teacherId;
+    private String teacherName;
+    private List<AuditDecision> items;
+}
@@ -0,0 +1,29 @@
+package com.baoyan.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BatchAuditResult {
+    private List<ItemOutcome> items = new ArrayList<>();  // 每个项目的处理结果，顺序与请求一致
+    private Integer approvedCount;       // 审核通过的项目数
+    private Integer rejectedCount;       // 驳回的项目数
+    private Integer failedCount;         // 未处理的项目数
+    private Integer studentsUpdated;     // 重新计算总分的学生数
+    private Integer professionsReranked; // 重新排名的专业数
+    private Long elapsedMillis;          // 总耗时（毫秒）
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemOutcome {
+        private Long id;
+        private String action;
+        private Boolean success;
+        private String message;
+    }
+}
@@ -0,0 +1,12 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+@Data
+public class BatchScoreResult {
+    private Integer studentsScanned;  // 参与计算的学生数
+    private Integer rowsUpdated;      // 总分发生变化并写回的学生数
+    private Integer chunks;           // 分批提交的批次数
+    private Long elapsedMillis;       // 总分计算及写回耗时（毫秒）
+    private RankingResult ranking;    // 随后逐个专业重排的结果
+}
@@ -0,0 +1,16 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class Leaderboard {
+    private String scope;               // 排名范围：专业名称或 "ALL"
+    private Integer total;              // 参与排名的人数
+    private Integer offset;             // 第一条记录的位置（从 0 开始）
+    private List<RankedStudent> list;   // 按总分降序、学号升序
+    private Long snapshotVersion;       // 来自内存索引时的快照版本，回退到数据库时为空
+    private LocalDateTime computedAt;   // 快照生成时间
+}
@@ -3,11 +3,44 @@ package com.baoyan.vo;
 import lombok.Data;
 
 import java.util.List;
+import java.util.function.Function;
 
 @Data
 public class Page<T> {
+
+    // 游标分页每页最多返回的条数
+    public static final int MAX_PAGE_SIZE = 100;
+
     private Integer pageNum;
     private Integer pageSize;
     private Integer total;
     private List<T> list;
+    private String nextCursor; // 游标分页时下一页的令牌，没有下一页时为 null
+
+    /**
+     * 检查游标分页的每页条数，不在 1 到 MAX_PAGE_SIZE 之间时抛出 IllegalArgumentException，由接口返回 400
+     */
+    public static int checkPageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("每页条数应在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        return pageSize;
+    }
+
+    /**
+     * 构造游标分页结果：rows 按 pageSize + 1 条查询，多出的一条只用于判断是否还有下一页
+     */
+    public static <T> Page<T> ofKeyset(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+        checkPageSize(pageSize);
+        Page<T> page = new Page<>();
+        page.setPageSize(pageSize);
+        if (rows.size() > pageSize) {
+            List<T> list = rows.subList(0, pageSize);
+            page.setList(list);
+            page.setNextCursor(cursorOf.apply(list.get(pageSize - 1)));
+        } else {
+            page.setList(rows);
+        }
+        return page;
+    }
 }
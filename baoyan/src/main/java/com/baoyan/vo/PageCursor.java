@@ -0,0 +1,43 @@
+package com.baoyan.vo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标分页的续页令牌：把上一页最后一条记录的排序键编码为不透明字符串
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码令牌，返回排序键；令牌格式不正确时抛出 IllegalArgumentException
+     */
+    public static String[] decode(String token, int keyCount) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\" + SEPARATOR, keyCount);
+            if (keys.length != keyCount) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class RankedStudent {
+    private Integer rank;           // 名次，总分相同则并列
+    private String studentId;
+    private String name;
+    private String profession;
+    private BigDecimal totalScore;
+    private BigDecimal scoreGap;    // 相邻查询中与查询学生的分差，高于该学生为正
+}
@@ -0,0 +1,26 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RankingJobStatus {
+    private String jobName;
+    private String lockOwner;             // 当前持有运行锁的实例，空闲时为空
+    private LocalDateTime lockedUntil;    // 运行锁租约到期时间
+    private String status;                // IDLE / RUNNING / SUCCEEDED / FAILED
+    private String phase;                 // SCORES-重算总分，RANKING-按专业重排
+    private LocalDateTime startedAt;      // 最近一次运行开始时间
+    private LocalDateTime finishedAt;     // 最近一次运行结束时间
+    private Long durationMs;              // 最近一次运行耗时（续跑时为接手后的耗时）
+    private Integer studentsScanned;      // 参与总分重算的学生数
+    private Integer rowsChanged;          // 总分和名次写回的行数
+    private Integer professionsTotal;     // 需要重排的专业数
+    private Integer professionsDone;      // 已完成的专业数
+    private String lastProfession;        // 检查点：最后完成的专业
+    private Integer attempts;             // 本次运行的执行次数，崩溃后续跑时递增
+    private String errorMessage;
+    private LocalDateTime updatedAt;      // 最近一次进度更新时间
+    private LocalDateTime nextRunAt;      // 下一次定时执行时间，不来自数据库
+}
@@ -0,0 +1,11 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+@Data
+public class RankingResult {
+    private String scope;         // 排名范围：专业名称或 "ALL"
+    private Integer rowsScanned;  // 参与排名的学生数
+    private Integer rowsUpdated;  // 名次发生变化并写回的行数
+    private Long elapsedMillis;   // 耗时（毫秒）
+}
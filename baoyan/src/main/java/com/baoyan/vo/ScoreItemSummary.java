@@ -0,0 +1,50 @@
+package com.baoyan.vo;
+
+import com.baoyan.entity.ScoreItem;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 加分项目列表行：只含列表页展示的字段，不含证明材料，详情通过按 id 查询获取完整记录。
+ * 项目描述、审核备注和更新时间只有老师审核列表（REVIEW_COLUMNS）查询，其他列表中为 null
+ */
+@Data
+public class ScoreItemSummary {
+    private Long id;
+
+    private String studentId;
+    private String studentName;
+
+    private String itemName;
+    private String itemCategory;
+    private BigDecimal itemScore;
+
+    private Integer status; // 0-待审核, 1-审核通过, 2-审核驳回
+    private String rejectReason;
+
+    private LocalDateTime createTime;
+    private LocalDateTime auditTime;
+
+    private String auditorName;
+    private Integer resubmitCount;
+
+    // 仅老师审核列表返回
+    private String itemDescription;
+    private String auditNote;
+    private LocalDateTime updateTime;
+
+    // 获取状态文本描述，与 ScoreItem 一致
+    public String getStatusText() {
+        if (status == null) {
+            return "未知状态";
+        }
+        return switch (status) {
+            case ScoreItem.Status.PENDING -> "待审核";
+            case ScoreItem.Status.APPROVED -> "审核通过";
+            case ScoreItem.Status.REJECTED -> "审核驳回";
+            default -> "未知状态";
+        };
+    }
+}
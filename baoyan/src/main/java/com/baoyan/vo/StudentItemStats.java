@@ -0,0 +1,14 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class StudentItemStats {
+    private Integer totalItems;      // 项目总数
+    private Integer pendingCount;    // 待审核数量
+    private Integer approvedCount;   // 通过数量
+    private Integer rejectedCount;   // 驳回数量
+    private BigDecimal approvedScore; // 已通过项目的分数之和
+}
@@ -0,0 +1,13 @@
+package com.baoyan.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentRank {
+    private String studentId;
+    private Integer rank;
+}
@@ -0,0 +1,14 @@
+package com.baoyan.vo;
+
+import lombok.Data;
+
+/**
+ * 老师审核统计
+ */
+@Data
+public class TeacherAuditStats {
+    private Integer pendingCount;    // 待审核数量
+    private Integer approvedCount;   // 通过数量
+    private Integer rejectedCount;   // 驳回数量
+    private Double approvalRate;     // 通过率
+}
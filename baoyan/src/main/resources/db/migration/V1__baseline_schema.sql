@@ -0,0 +1,73 @@
+-- 基线表结构，与实体类字段一致；已有库启用迁移时表已存在，IF NOT EXISTS 保证不改动原表
+CREATE TABLE IF NOT EXISTS student (
+    id           VARCHAR(32)    NOT NULL,
+    name         VARCHAR(64),
+    password     VARCHAR(128),
+    profession   VARCHAR(64),
+    phone        VARCHAR(32),
+    picture      VARCHAR(255),
+    base_score   DECIMAL(10, 2) DEFAULT 0,
+    total_score  DECIMAL(10, 2) DEFAULT 0,
+    student_rank INT,
+    class_name   VARCHAR(64),
+    email        VARCHAR(128),
+    status       INT            DEFAULT 1,
+    created_time DATETIME,
+    updated_time DATETIME,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS teacher (
+    id           VARCHAR(32)  NOT NULL,
+    name         VARCHAR(64),
+    password     VARCHAR(128),
+    profession   VARCHAR(64),
+    phone        VARCHAR(32),
+    picture      VARCHAR(255),
+    title        VARCHAR(64),
+    department   VARCHAR(64),
+    email        VARCHAR(128),
+    status       INT          DEFAULT 1,
+    can_audit    INT          DEFAULT 1,
+    created_time DATETIME,
+    updated_time DATETIME,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS admin (
+    id              INT           NOT NULL AUTO_INCREMENT,
+    username        VARCHAR(64),
+    name            VARCHAR(64),
+    password        VARCHAR(128),
+    role            VARCHAR(32),
+    permissions     VARCHAR(1024),
+    status          INT           DEFAULT 1,
+    phone           VARCHAR(32),
+    email           VARCHAR(128),
+    last_login_time DATETIME,
+    created_time    DATETIME,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS score_item (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    student_id       VARCHAR(32),
+    student_name     VARCHAR(64),
+    item_name        VARCHAR(128),
+    item_category    VARCHAR(64),
+    item_score       DECIMAL(10, 2),
+    item_description VARCHAR(1024),
+    proof_image      VARCHAR(255),
+    proof_files      VARCHAR(2048),
+    status           INT            DEFAULT 0,
+    reject_reason    VARCHAR(512),
+    create_time      DATETIME,
+    update_time      DATETIME,
+    audit_time       DATETIME,
+    last_audit_time  DATETIME,
+    auditor_id       VARCHAR(32),
+    auditor_name     VARCHAR(64),
+    audit_note       VARCHAR(512),
+    resubmit_count   INT            DEFAULT 0,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,7 @@
+-- 物化的通过审核加分总和，由 ScoreItemService 按差值维护，ScoreDriftVerifier 定期核对
+ALTER TABLE student ADD COLUMN approved_score DECIMAL(10, 2) DEFAULT 0 AFTER base_score;
+
+UPDATE student s SET approved_score = (
+    SELECT COALESCE(SUM(si.item_score), 0) FROM score_item si
+    WHERE si.student_id = s.id AND si.status = 1
+);
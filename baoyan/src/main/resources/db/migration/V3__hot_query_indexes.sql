@@ -0,0 +1,31 @@
+-- 按 ScoreItemMapper / StudentMapper 中的查询建立联合索引，索引名与 SchemaIndexCheck 中的列表保持一致
+
+-- 待审核列表、待审核分页和计数：WHERE status = 0 ORDER BY create_time DESC, id
+CREATE INDEX idx_score_item_status_time ON score_item (status, create_time, id);
+
+-- 学生的项目列表：WHERE student_id = ? [AND status = ?] ORDER BY create_time DESC
+CREATE INDEX idx_score_item_student_time ON score_item (student_id, status, create_time);
+
+-- 加分汇总：按学生分组求和通过的项目，覆盖 SUM(item_score) 不回表
+CREATE INDEX idx_score_item_status_student_score ON score_item (status, student_id, item_score);
+
+-- 教师已审核列表和审核统计：WHERE auditor_id = ? AND status IN (1, 2) ORDER BY audit_time DESC
+CREATE INDEX idx_score_item_auditor_status_time ON score_item (auditor_id, status, audit_time);
+
+-- 按类别统计
+CREATE INDEX idx_score_item_category_status_score ON score_item (item_category, status, item_score);
+
+-- 全部项目和按时间范围导出：ORDER BY create_time DESC
+CREATE INDEX idx_score_item_create_time ON score_item (create_time);
+
+-- 专业内排名、名次平移和并列名次计算：WHERE profession = ? AND status = 1 [ORDER BY] total_score
+CREATE INDEX idx_student_profession_score ON student (profession, status, total_score);
+
+-- 全校排名：WHERE status = 1 ORDER BY total_score DESC
+CREATE INDEX idx_student_status_score ON student (status, total_score);
+
+-- 按专业查找教师
+CREATE INDEX idx_teacher_profession ON teacher (profession);
+
+-- 管理员登录和用户名查重
+CREATE INDEX idx_admin_username ON admin (username);
@@ -0,0 +1,22 @@
+-- 定时排名任务的运行锁和进度：每个任务一行，多实例通过条件 UPDATE 抢占租约，进度检查点用于崩溃后续跑
+CREATE TABLE IF NOT EXISTS ranking_job (
+    job_name           VARCHAR(64)  NOT NULL,
+    lock_owner         VARCHAR(128),
+    locked_until       DATETIME,
+    status             VARCHAR(16),
+    phase              VARCHAR(16),
+    started_at         DATETIME,
+    finished_at        DATETIME,
+    duration_ms        BIGINT,
+    students_scanned   INT          DEFAULT 0,
+    rows_changed       INT          DEFAULT 0,
+    professions_total  INT          DEFAULT 0,
+    professions_done   INT          DEFAULT 0,
+    last_profession    VARCHAR(64),
+    attempts           INT          DEFAULT 0,
+    error_message      VARCHAR(512),
+    updated_at         DATETIME,
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+INSERT INTO ranking_job (job_name, status) VALUES ('nightly-rerank', 'IDLE');
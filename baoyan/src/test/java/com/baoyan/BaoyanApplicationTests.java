@@ -3,7 +3,8 @@ package com.baoyan;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// 只检查上下文能否装配，不连接数据库执行迁移
+@SpringBootTest(properties = "spring.flyway.enabled=false")
 class BaoyanApplicationTests {
 
     @Test
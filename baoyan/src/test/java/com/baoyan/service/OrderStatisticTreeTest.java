@@ -0,0 +1,91 @@
+package com.baoyan.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatisticTreeTest {
+
+    private static RankEntry entry(String id, int score) {
+        return new RankEntry(id, id, "CS", BigDecimal.valueOf(score));
+    }
+
+    @Test
+    void countHigherGivesCompetitionRank() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        tree.insert(entry("s1", 90));
+        tree.insert(entry("s2", 95));
+        tree.insert(entry("s3", 90));
+        tree.insert(entry("s4", 80));
+
+        assertEquals(0, tree.countHigher(BigDecimal.valueOf(95)));
+        assertEquals(1, tree.countHigher(BigDecimal.valueOf(90)));
+        assertEquals(3, tree.countHigher(BigDecimal.valueOf(80)));
+        assertEquals("s2", tree.get(0).getStudentId());
+        assertEquals("s1", tree.get(1).getStudentId());
+        assertEquals(2, tree.indexOf(entry("s3", 90)));
+    }
+
+    @Test
+    void removeMissingEntryIsNoop() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        tree.insert(entry("s1", 90));
+        assertFalse(tree.remove(entry("s1", 91)));
+        assertTrue(tree.remove(entry("s1", 90)));
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        tree.insert(entry("s1", 90));
+        tree.insert(entry("s2", 80));
+
+        OrderStatisticTree copy = tree.copy();
+        tree.insert(entry("s3", 95));
+        tree.remove(entry("s1", 90));
+        copy.insert(entry("s4", 70));
+
+        assertEquals(2, tree.size());
+        assertEquals("s3", tree.get(0).getStudentId());
+        assertEquals(3, copy.size());
+        assertEquals("s1", copy.get(0).getStudentId());
+        assertEquals(-1, copy.indexOf(entry("s3", 95)));
+    }
+
+    @Test
+    void matchesSortedListUnderRandomUpdates() {
+        Random random = new Random(42);
+        OrderStatisticTree tree = new OrderStatisticTree();
+        List<RankEntry> expected = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                RankEntry victim = expected.remove(random.nextInt(expected.size()));
+                assertTrue(tree.remove(victim));
+            } else {
+                RankEntry e = entry("s" + i, random.nextInt(50));
+                expected.add(e);
+                tree.insert(e);
+            }
+        }
+
+        Collections.sort(expected);
+        assertEquals(expected.size(), tree.size());
+        for (int i = 0; i < expected.size(); i++) {
+            RankEntry e = expected.get(i);
+            assertEquals(e, tree.get(i));
+            assertEquals(i, tree.indexOf(e));
+            long higher = expected.stream().filter(o -> o.getTotalScore().compareTo(e.getTotalScore()) > 0).count();
+            assertEquals(higher, tree.countHigher(e.getTotalScore()));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.baoyan.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class RankingEngineTest {
+
+    private static List<BigDecimal> scores(String... values) {
+        return Arrays.stream(values).map(v -> v == null ? null : new BigDecimal(v)).toList();
+    }
+
+    @Test
+    void competitionRanksSkipAfterTies() {
+        int[] ranks = RankingEngine.assignRanks(scores("95", "90.0", "90", "88", "88", "70"));
+        assertArrayEquals(new int[]{1, 2, 2, 4, 4, 6}, ranks);
+    }
+
+    @Test
+    void denseRanksDoNotSkip() {
+        int[] ranks = RankingEngine.assignRanks(scores("95", "90", "90", "88"), RankingEngine.Mode.DENSE);
+        assertArrayEquals(new int[]{1, 2, 2, 3}, ranks);
+    }
+
+    @Test
+    void nullScoresTieWithEachOther() {
+        int[] ranks = RankingEngine.assignRanks(scores("80", null, null));
+        assertArrayEquals(new int[]{1, 2, 2}, ranks);
+    }
+
+    @Test
+    void emptyInput() {
+        assertArrayEquals(new int[0], RankingEngine.assignRanks(Collections.emptyList()));
+    }
+}
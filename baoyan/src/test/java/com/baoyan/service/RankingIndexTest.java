@@ -0,0 +1,127 @@
+package com.baoyan.service;
+
+import com.baoyan.vo.RankedStudent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankingIndexTest {
+
+    private static RankEntry entry(String id, String profession, int score) {
+        return new RankEntry(id, id, profession, BigDecimal.valueOf(score));
+    }
+
+    @Test
+    void publishedSnapshotIsNotAffectedByLaterUpdates() {
+        RankingIndex index = new RankingIndex();
+        index.rebuild(List.of(entry("s1", "CS", 90), entry("s2", "CS", 80), entry("s3", "EE", 85)));
+        RankingIndex.Snapshot before = index.current();
+
+        index.put(entry("s2", "CS", 95));
+        index.remove("s3");
+
+        assertEquals(2, before.lookup("s2").getProfessionRank());
+        assertEquals(3, before.lookup("s2").getCollegeRank());
+        assertEquals(2, before.lookup("s3").getCollegeRank());
+
+        RankingIndex.Position after = index.lookup("s2");
+        assertEquals(1, after.getProfessionRank());
+        assertEquals(1, after.getCollegeRank());
+        assertEquals(2, after.getCollegeSize());
+        assertNull(index.lookup("s3"));
+        assertEquals(before.getVersion() + 2, after.getVersion());
+    }
+
+    @Test
+    void professionChangeMovesTheStudentBetweenTrees() {
+        RankingIndex index = new RankingIndex();
+        index.rebuild(List.of(entry("s1", "CS", 90), entry("s2", "CS", 80)));
+        long version = index.current().getVersion();
+
+        index.put(entry("s1", "EE", 90));
+
+        RankingIndex.Position moved = index.lookup("s1");
+        assertEquals("EE", moved.getEntry().getProfession());
+        assertEquals(1, moved.getProfessionSize());
+        assertEquals(1, index.lookup("s2").getProfessionRank());
+        assertTrue(moved.getVersion() > version);
+
+        // 删除不存在的学生不发布新版本
+        index.remove("missing");
+        assertEquals(moved.getVersion(), index.current().getVersion());
+    }
+
+    @Test
+    void updatesDuringRebuildAreReplayedOnTheNewSnapshot() {
+        RankingIndex index = new RankingIndex();
+        // 未加载时单条更新没有基准数据，不会发布只含部分学生的快照
+        index.put(entry("s9", "CS", 99));
+        assertFalse(index.isReady());
+
+        index.rebuild(List.of(entry("s1", "CS", 90), entry("s2", "CS", 80)));
+        index.rebuild(() -> {
+            // 加载期间提交的修改：数据库读到的仍是旧值
+            index.put(entry("s2", "CS", 95));
+            index.remove("s1");
+            return List.of(entry("s1", "CS", 90), entry("s2", "CS", 80), entry("s3", "CS", 70));
+        });
+
+        assertNull(index.lookup("s1"));
+        assertNull(index.lookup("s9"));
+        assertEquals(1, index.lookup("s2").getProfessionRank());
+        assertEquals(2, index.lookup("s3").getProfessionRank());
+    }
+
+    @Test
+    void rangeKeepsTiedRanksAcrossPages() {
+        RankingIndex index = new RankingIndex();
+        index.rebuild(List.of(entry("s1", "CS", 90), entry("s2", "CS", 80), entry("s3", "CS", 80),
+                entry("s4", "CS", 70), entry("s5", "EE", 99)));
+        RankingIndex.Snapshot snapshot = index.current();
+
+        List<RankedStudent> first = snapshot.range("CS", 0, 2);
+        List<RankedStudent> second = snapshot.range("CS", 2, 2);
+        assertEquals(List.of("s1", "s2"), first.stream().map(RankedStudent::getStudentId).toList());
+        assertEquals(List.of(1, 2), first.stream().map(RankedStudent::getRank).toList());
+        assertEquals(List.of("s3", "s4"), second.stream().map(RankedStudent::getStudentId).toList());
+        assertEquals(List.of(2, 4), second.stream().map(RankedStudent::getRank).toList());
+
+        assertEquals(5, snapshot.size(null));
+        assertEquals("s5", snapshot.range(null, 0, 1).get(0).getStudentId());
+        assertTrue(snapshot.range("CS", 10, 5).isEmpty());
+        assertTrue(snapshot.range("MATH", 0, 5).isEmpty());
+    }
+
+    @Test
+    void neighborsWithScoreGaps() {
+        RankingIndex index = new RankingIndex();
+        index.rebuild(List.of(entry("s1", "CS", 95), entry("s2", "CS", 90), entry("s3", "CS", 80),
+                entry("s4", "CS", 80), entry("s5", "CS", 60), entry("s6", "EE", 85)));
+
+        RankingIndex.Neighbors profession = index.current().neighbors("s3", false, 2);
+        assertEquals("CS", profession.getScope());
+        assertEquals(3, profession.getStudent().getRank());
+        assertEquals(List.of("s1", "s2"), profession.getAbove().stream().map(RankedStudent::getStudentId).toList());
+        assertEquals(List.of("s4", "s5"), profession.getBelow().stream().map(RankedStudent::getStudentId).toList());
+        assertEquals(0, BigDecimal.valueOf(10).compareTo(profession.getAbove().get(1).getScoreGap()));
+        assertEquals(3, profession.getBelow().get(0).getRank());
+        assertEquals(0, BigDecimal.valueOf(-20).compareTo(profession.getBelow().get(1).getScoreGap()));
+
+        // 排在最前时没有前面的学生
+        RankingIndex.Neighbors top = index.current().neighbors("s1", false, 2);
+        assertTrue(top.getAbove().isEmpty());
+        assertEquals(2, top.getBelow().size());
+
+        RankingIndex.Neighbors college = index.current().neighbors("s2", true, 1);
+        assertEquals("ALL", college.getScope());
+        assertEquals(2, college.getStudent().getRank());
+        assertEquals("s6", college.getBelow().get(0).getStudentId());
+        assertNull(index.current().neighbors("missing", true, 1));
+    }
+}
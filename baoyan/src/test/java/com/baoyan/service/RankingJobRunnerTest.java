@@ -0,0 +1,147 @@
+package com.baoyan.service;
+
+import com.baoyan.config.RankingProperties;
+import com.baoyan.mapper.RankingJobMapper;
+import com.baoyan.mapper.ScoreItemMapper;
+import com.baoyan.vo.BatchScoreResult;
+import com.baoyan.vo.RankingJobStatus;
+import com.baoyan.vo.RankingResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RankingJobRunnerTest {
+
+    private RankingJobRunner runner;
+    private RankingJobMapper jobMapper;
+    private ScoreItemMapper scoreItemMapper;
+    private RankingService rankingService;
+
+    @BeforeEach
+    void setUp() {
+        runner = new RankingJobRunner();
+        jobMapper = mock(RankingJobMapper.class);
+        scoreItemMapper = mock(ScoreItemMapper.class);
+        rankingService = mock(RankingService.class);
+        ReflectionTestUtils.setField(runner, "rankingJobMapper", jobMapper);
+        ReflectionTestUtils.setField(runner, "scoreItemMapper", scoreItemMapper);
+        ReflectionTestUtils.setField(runner, "rankingService", rankingService);
+        ReflectionTestUtils.setField(runner, "rankingProperties", new RankingProperties());
+
+        when(scoreItemMapper.getRankedProfessions()).thenReturn(List.of("CS", "EE", "AI", "MATH"));
+        when(rankingService.updateRankingByProfession(anyString())).thenReturn(rankingResult(2));
+        when(jobMapper.checkpoint(anyString(), anyString(), anyInt(), any())).thenReturn(1);
+    }
+
+    @Test
+    void skipsWhenAnotherInstanceHoldsTheLock() {
+        when(jobMapper.tryAcquire(anyString(), anyString(), anyInt())).thenReturn(0);
+
+        assertNull(runner.run());
+
+        verify(rankingService, never()).recalculateScores(any());
+        verify(rankingService, never()).updateRankingByProfession(anyString());
+    }
+
+    @Test
+    void resumesAfterTheLastCheckpointedProfession() {
+        when(jobMapper.tryAcquire(anyString(), anyString(), anyInt())).thenReturn(1);
+        RankingJobStatus crashed = new RankingJobStatus();
+        crashed.setStatus(RankingJobRunner.STATUS_RUNNING);
+        crashed.setPhase(RankingJobRunner.PHASE_RANKING);
+        crashed.setRowsChanged(10);
+        crashed.setProfessionsDone(2);
+        crashed.setLastProfession("CS");
+        when(jobMapper.findByName(RankingJobRunner.NIGHTLY_JOB)).thenReturn(crashed);
+
+        runner.run();
+
+        verify(jobMapper).resume(eq(RankingJobRunner.NIGHTLY_JOB), anyString());
+        verify(jobMapper, never()).start(anyString(), anyString());
+        verify(rankingService, never()).recalculateScores(any());
+        verify(rankingService, never()).updateRankingByProfession("AI");
+        verify(rankingService, never()).updateRankingByProfession("CS");
+        verify(rankingService).updateRankingByProfession("EE");
+        verify(rankingService).updateRankingByProfession("MATH");
+        verify(jobMapper).finish(eq(RankingJobRunner.NIGHTLY_JOB), anyString(),
+                eq(RankingJobRunner.STATUS_SUCCEEDED), anyLong(), isNull());
+    }
+
+    @Test
+    void abortsWhenTheLeaseIsLost() {
+        when(jobMapper.tryAcquire(anyString(), anyString(), anyInt())).thenReturn(1);
+        RankingJobStatus idle = new RankingJobStatus();
+        idle.setStatus("SUCCEEDED");
+        RankingJobStatus started = new RankingJobStatus();
+        started.setStatus(RankingJobRunner.STATUS_RUNNING);
+        started.setPhase(RankingJobRunner.PHASE_SCORES);
+        started.setRowsChanged(0);
+        when(jobMapper.findByName(RankingJobRunner.NIGHTLY_JOB)).thenReturn(idle, started);
+        BatchScoreResult scores = new BatchScoreResult();
+        scores.setStudentsScanned(100);
+        scores.setRowsUpdated(5);
+        when(rankingService.recalculateScores(any())).thenReturn(scores);
+        when(jobMapper.checkpoint(anyString(), anyString(), anyInt(), any())).thenReturn(1, 1, 0);
+
+        assertThrows(IllegalStateException.class, () -> runner.run());
+
+        // 总分阶段和第一个专业完成，第二个专业写检查点时发现锁已失效
+        verify(rankingService).updateRankingByProfession("AI");
+        verify(rankingService).updateRankingByProfession("CS");
+        verify(rankingService, never()).updateRankingByProfession("EE");
+        verify(jobMapper).finish(eq(RankingJobRunner.NIGHTLY_JOB), anyString(),
+                eq(RankingJobRunner.STATUS_FAILED), anyLong(), anyString());
+        verify(rankingService, never()).loadRankingIndex();
+    }
+
+    @Test
+    void renewsTheLeaseAfterEachScoreChunk() {
+        when(jobMapper.tryAcquire(anyString(), anyString(), anyInt())).thenReturn(1);
+        RankingJobStatus idle = new RankingJobStatus();
+        idle.setStatus("SUCCEEDED");
+        RankingJobStatus started = new RankingJobStatus();
+        started.setStatus(RankingJobRunner.STATUS_RUNNING);
+        started.setPhase(RankingJobRunner.PHASE_SCORES);
+        when(jobMapper.findByName(RankingJobRunner.NIGHTLY_JOB)).thenReturn(idle, started);
+        when(rankingService.recalculateScores(any())).thenAnswer(invocation -> {
+            Runnable afterChunk = invocation.getArgument(0);
+            afterChunk.run();
+            afterChunk.run();
+            // 第三批提交后续约失败，说明租约已过期并被其他实例接手
+            when(jobMapper.checkpoint(anyString(), anyString(), anyInt(), any())).thenReturn(0);
+            afterChunk.run();
+            return new BatchScoreResult();
+        });
+
+        assertThrows(IllegalStateException.class, () -> runner.run());
+
+        verify(jobMapper, times(3)).checkpoint(eq(RankingJobRunner.NIGHTLY_JOB), anyString(), eq(900), any());
+        verify(rankingService, never()).updateRankingByProfession(anyString());
+    }
+
+    @Test
+    void skipsWhenTheJobTableIsMissing() {
+        when(jobMapper.tryAcquire(anyString(), anyString(), anyInt()))
+                .thenThrow(new BadSqlGrammarException("tryAcquire", "UPDATE ranking_job", new SQLException()));
+
+        assertNull(runner.run());
+
+        verify(rankingService, never()).recalculateScores(any());
+        verify(jobMapper, never()).finish(anyString(), anyString(), anyString(), anyLong(), any());
+    }
+
+    private static RankingResult rankingResult(int rowsUpdated) {
+        RankingResult result = new RankingResult();
+        result.setRowsUpdated(rowsUpdated);
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package com.baoyan.service;
+
+import com.baoyan.config.RankingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class RankingQueueTest {
+
+    private RankingQueue queue;
+    private RankingService rankingService;
+    private RankingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        queue = new RankingQueue();
+        rankingService = mock(RankingService.class);
+        properties = new RankingProperties();
+        ReflectionTestUtils.setField(queue, "rankingService", rankingService);
+        ReflectionTestUtils.setField(queue, "rankingProperties", properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void coalescesEventsForTheSameProfession() {
+        properties.getQueue().setDebounceMs(0);
+        when(rankingService.refreshStudentsRanking(anyCollection())).thenReturn(1);
+
+        queue.enqueueStudent("s1", "CS");
+        queue.enqueueStudent("s2", "CS");
+        queue.enqueueStudent("s1", "CS");
+        queue.enqueueProfession("CS");
+        assertEquals(1, queue.depth());
+
+        queue.drain();
+
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(rankingService, times(1)).refreshStudentsRanking(captor.capture());
+        assertEquals(Set.of("s1", "s2"), Set.copyOf(captor.getValue()));
+        verify(rankingService, never()).updateRankingByProfession(any());
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void waitsForDebounceWindow() {
+        properties.getQueue().setDebounceMs(60_000);
+        properties.getQueue().setMaxDelayMs(60_000);
+
+        queue.enqueueProfession("CS");
+        queue.drain();
+
+        verifyNoInteractions(rankingService);
+        assertEquals(1, queue.depth());
+    }
+
+    @Test
+    void requeuesOnFailure() {
+        properties.getQueue().setDebounceMs(0);
+        doThrow(new RuntimeException("db down")).when(rankingService).updateRankingByProfession("CS");
+
+        queue.enqueueProfession("CS");
+        queue.drain();
+
+        assertEquals(1, queue.depth());
+        assertEquals(1L, queue.stats().get("failures"));
+    }
+}
@@ -0,0 +1,239 @@
+package com.baoyan.service;
+
+import com.baoyan.config.BatchSqlSession;
+import com.baoyan.config.RankingProperties;
+import com.baoyan.entity.Student;
+import com.baoyan.mapper.ScoreItemMapper;
+import com.baoyan.mapper.StudentMapper;
+import com.baoyan.vo.StudentRank;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RankingServiceTest {
+
+    private RankingService service;
+    private ScoreItemMapper scoreItemMapper;
+    private ScoreItemMapper batchMapper;
+    private StudentMapper studentMapper;
+    private RankingQueue rankingQueue;
+    private EntityCache entityCache;
+    private RankingProperties properties;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new RankingService();
+        scoreItemMapper = mock(ScoreItemMapper.class);
+        batchMapper = mock(ScoreItemMapper.class);
+        studentMapper = mock(StudentMapper.class);
+        rankingQueue = mock(RankingQueue.class);
+        properties = new RankingProperties();
+        properties.getIndex().setEnabled(false);
+
+        BatchSqlSession batchSqlSession = mock(BatchSqlSession.class);
+        when(batchSqlSession.getMapper(ScoreItemMapper.class)).thenReturn(batchMapper);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ReflectionTestUtils.setField(service, "scoreItemMapper", scoreItemMapper);
+        ReflectionTestUtils.setField(service, "studentMapper", studentMapper);
+        ReflectionTestUtils.setField(service, "rankingQueue", rankingQueue);
+        ReflectionTestUtils.setField(service, "rankingProperties", properties);
+        ReflectionTestUtils.setField(service, "rankingIndex", new RankingIndex());
+        entityCache = mock(EntityCache.class);
+        ReflectionTestUtils.setField(service, "entityCache", entityCache);
+        ReflectionTestUtils.setField(service, "batchSqlSession", batchSqlSession);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void driftRepairIsConditionalOnTheObservedApprovedScore() {
+        when(scoreItemMapper.findScoreDrift()).thenReturn(List.of(
+                drift("s1", "5", "8"),
+                drift("s2", "3", "0")));
+        // s2 在核对之后又被审核按差值调整过，条件 UPDATE 不生效
+        when(scoreItemMapper.repairApprovedScore("s1", new BigDecimal("5"))).thenReturn(1);
+        when(scoreItemMapper.repairApprovedScore("s2", new BigDecimal("3"))).thenReturn(0);
+        when(studentMapper.findByIds(anyCollection())).thenReturn(List.of(student("s1", "CS", "80", "8", "85")));
+
+        assertEquals(1, service.repairScoreDrift());
+
+        // 只由排名流程按修复后的加分之和重算总分，不直接写入核对时读到的值
+        verify(studentMapper).findByIds(List.of("s1"));
+        verify(batchMapper).updateStudentTotalScore("s1", new BigDecimal("88"));
+        verify(scoreItemMapper).getStudentScoresByProfession("CS");
+        verify(scoreItemMapper, never()).updateStudentScores(anyString(), any(), any());
+        verify(batchMapper, never()).updateStudentScores(anyString(), any(), any());
+    }
+
+    @Test
+    void driftRepairInAsyncModeOnlyEnqueues() {
+        properties.setUpdateMode(RankingProperties.UpdateMode.ASYNC);
+        when(entityCache.getStudent("s1")).thenReturn(student("s1", "CS", "80", "8", "85"));
+        when(scoreItemMapper.findScoreDrift()).thenReturn(List.of(drift("s1", null, "8")));
+        when(scoreItemMapper.repairApprovedScore("s1", null)).thenReturn(1);
+
+        assertEquals(1, service.repairScoreDrift());
+
+        verify(rankingQueue).enqueueStudent("s1", "CS");
+        verify(batchMapper, never()).updateStudentTotalScore(anyString(), any());
+    }
+
+    @Test
+    void incrementalUpdateShiftsOnlyStudentsPassed() {
+        Student student = student("s1", "CS", "80", "10", "85");
+        student.setStudentRank(3);
+        when(studentMapper.findByid("s1")).thenReturn(student);
+        when(studentMapper.findByIdForUpdate("s1")).thenReturn(student);
+        when(scoreItemMapper.getStudentScoresByProfession("CS")).thenReturn(List.of(
+                rankRow("a", "95", 1), rankRow("b", "88", 2), rankRow("s1", "85", 3), rankRow("d", "80", 4)));
+        when(scoreItemMapper.shiftRanksInProfession("CS", "s1", new BigDecimal("85"), new BigDecimal("90"), 1))
+                .thenReturn(1);
+        when(scoreItemMapper.batchUpdateStudentRank(anyList())).thenReturn(1);
+
+        assertEquals(2, service.incrementalUpdateForStudent("s1").getRowsUpdated());
+
+        // 先锁住专业，再加锁读取该学生的旧总分和旧名次
+        InOrder order = inOrder(scoreItemMapper, studentMapper);
+        order.verify(scoreItemMapper).getStudentScoresByProfession("CS");
+        order.verify(studentMapper).findByIdForUpdate("s1");
+        order.verify(scoreItemMapper).updateStudentTotalScore("s1", new BigDecimal("90"));
+        verify(scoreItemMapper).batchUpdateStudentRank(List.of(new StudentRank("s1", 2)));
+        // 只淘汰被平移的学生
+        verify(entityCache).evictStudents(List.of("b"));
+        verify(entityCache, never()).evictAllStudents();
+    }
+
+    @Test
+    void incrementalUpdateShiftsUpWhenScoreDrops() {
+        Student student = student("s1", "CS", "80", "0", "95");
+        student.setStudentRank(1);
+        when(studentMapper.findByid("s1")).thenReturn(student);
+        when(studentMapper.findByIdForUpdate("s1")).thenReturn(student);
+        when(scoreItemMapper.getStudentScoresByProfession("CS")).thenReturn(List.of(
+                rankRow("s1", "95", 1), rankRow("b", "88", 2), rankRow("c", "88", 2), rankRow("d", "70", 4)));
+
+        service.incrementalUpdateForStudent("s1");
+
+        verify(scoreItemMapper).shiftRanksInProfession("CS", "s1", new BigDecimal("80"), new BigDecimal("95"), -1);
+        verify(scoreItemMapper).batchUpdateStudentRank(List.of(new StudentRank("s1", 3)));
+        verify(entityCache).evictStudents(List.of("b", "c"));
+    }
+
+    @Test
+    void updateAllRankingOnlyWritesProfessionRanks() {
+        when(scoreItemMapper.getRankedProfessions()).thenReturn(List.of("CS", "EE"));
+        when(scoreItemMapper.getStudentScoresByProfession("CS")).thenReturn(List.of(rankRow("a", "90", 2)));
+        when(scoreItemMapper.getStudentScoresByProfession("EE")).thenReturn(List.of(rankRow("b", "95", 1)));
+        when(scoreItemMapper.batchUpdateStudentRank(anyList())).thenReturn(1);
+
+        assertEquals(1, service.updateAllRanking().getRowsUpdated());
+
+        // 全院第 2 名的 a 在本专业是第 1 名
+        verify(scoreItemMapper).batchUpdateStudentRank(List.of(new StudentRank("a", 1)));
+        verify(scoreItemMapper, times(1)).batchUpdateStudentRank(anyList());
+    }
+
+    @Test
+    void indexedUpdateReadsTheStudentWithALockInsteadOfTheCache() {
+        RankingIndex index = new RankingIndex();
+        index.rebuild(List.of(new RankEntry("s1", "s1", "CS", new BigDecimal("85"))));
+        ReflectionTestUtils.setField(service, "rankingIndex", index);
+        properties.getIndex().setEnabled(true);
+        // 缓存被并发读取填入了调整前的加分之和，加锁读到的是本事务刚调整后的值
+        when(entityCache.getStudent("s1")).thenReturn(student("s1", "CS", "80", "5", "85"));
+        when(studentMapper.findByIdForUpdate("s1")).thenReturn(student("s1", "CS", "80", "10", "85"));
+
+        service.refreshStudentRanking("s1");
+
+        verify(scoreItemMapper).updateStudentTotalScore("s1", new BigDecimal("90"));
+        verify(entityCache, never()).getStudent(anyString());
+        assertEquals(new BigDecimal("90"), index.current().lookup("s1").getEntry().getTotalScore());
+    }
+
+    @Test
+    void rankingInfoHasTheSameKeysWithAndWithoutTheIndex() {
+        when(scoreItemMapper.getStudentWithScores("s1")).thenAnswer(invocation -> studentWithScores());
+        when(scoreItemMapper.rankOfScore(isNull(), any())).thenReturn(2);
+        when(scoreItemMapper.countRankedStudents(any())).thenReturn(2);
+        Map<String, Object> fromDatabase = service.getStudentRankingInfo("s1");
+
+        RankingIndex index = new RankingIndex();
+        index.rebuild(List.of(new RankEntry("s1", "s1", "CS", new BigDecimal("85")),
+                new RankEntry("s2", "s2", "EE", new BigDecimal("90"))));
+        ReflectionTestUtils.setField(service, "rankingIndex", index);
+        properties.getIndex().setEnabled(true);
+        Map<String, Object> fromIndex = service.getStudentRankingInfo("s1");
+
+        assertEquals(fromDatabase.keySet(), fromIndex.keySet());
+        assertEquals(fromDatabase.get("class_name"), fromIndex.get("class_name"));
+        assertEquals(1, fromIndex.get("rank"));
+        assertEquals(2, fromIndex.get("college_rank"));
+        assertEquals(2, fromDatabase.get("college_rank"));
+    }
+
+    private static Map<String, Object> studentWithScores() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "s1");
+        row.put("name", "s1");
+        row.put("profession", "CS");
+        row.put("base_score", new BigDecimal("80"));
+        row.put("total_score", new BigDecimal("85"));
+        row.put("student_rank", 1);
+        row.put("class_name", "一班");
+        row.put("item_count", 1L);
+        row.put("approved_score", new BigDecimal("5"));
+        row.put("pending_score", BigDecimal.ZERO);
+        row.put("rejected_score", BigDecimal.ZERO);
+        return row;
+    }
+
+    private static Map<String, Object> rankRow(String id, String score, int rank) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("total_score", new BigDecimal(score));
+        row.put("student_rank", rank);
+        return row;
+    }
+
+    private static Map<String, Object> drift(String id, String approved, String actual) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("approved_score", approved != null ? new BigDecimal(approved) : null);
+        row.put("actual_approved_score", new BigDecimal(actual));
+        return row;
+    }
+
+    static Student student(String id, String profession, String base, String approved, String total) {
+        Student student = new Student();
+        student.setId(id);
+        student.setProfession(profession);
+        student.setStatus(1);
+        student.setBaseScore(new BigDecimal(base));
+        student.setApprovedScore(new BigDecimal(approved));
+        student.setTotalScore(total != null ? new BigDecimal(total) : null);
+        return student;
+    }
+}
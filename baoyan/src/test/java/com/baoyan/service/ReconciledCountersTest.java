@@ -0,0 +1,46 @@
+package com.baoyan.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReconciledCountersTest {
+
+    @Test
+    void adjustmentsDuringReconcileAreNotLost() {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicReference<ReconciledCounters<AtomicLong>> holder = new AtomicReference<>();
+        ReconciledCounters<AtomicLong> counters = new ReconciledCounters<>("测试", () -> {
+            if (loads.incrementAndGet() == 1) {
+                return new AtomicLong(10);
+            }
+            // 对账查询期间提交的调整：数据库读到的仍是调整前的值
+            holder.get().update(AtomicLong::incrementAndGet);
+            return new AtomicLong(11);
+        });
+        holder.set(counters);
+
+        assertEquals(10, counters.get().get());
+        counters.update(AtomicLong::incrementAndGet);
+        assertEquals(11, counters.get().get());
+
+        counters.reconcile();
+
+        assertEquals(12, counters.get().get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void adjustmentsBeforeFirstLoadAreLeftToTheLoad() {
+        ReconciledCounters<AtomicLong> counters = new ReconciledCounters<>("测试", () -> new AtomicLong(5));
+
+        counters.update(AtomicLong::incrementAndGet);
+        counters.reconcile();
+
+        assertEquals(5, counters.get().get());
+    }
+}
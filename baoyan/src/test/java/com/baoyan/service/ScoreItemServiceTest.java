@@ -0,0 +1,241 @@
+package com.baoyan.service;
+
+import com.baoyan.config.BatchSqlSession;
+import com.baoyan.config.CacheProperties;
+import com.baoyan.entity.ScoreItem;
+import com.baoyan.mapper.ScoreItemMapper;
+import com.baoyan.vo.AuditDecision;
+import com.baoyan.vo.BatchAuditResult;
+import com.baoyan.vo.Page;
+import com.baoyan.vo.PageCursor;
+import com.baoyan.vo.ScoreItemSummary;
+import org.apache.ibatis.executor.BatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScoreItemServiceTest {
+
+    private ScoreItemService service;
+    private ScoreItemMapper scoreItemMapper;
+    private ScoreItemMapper batchMapper;
+    private BatchSqlSession batchSqlSession;
+    private AuditStatsProvider auditStatsProvider;
+    private RankingService rankingService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new ScoreItemService();
+        scoreItemMapper = mock(ScoreItemMapper.class);
+        batchMapper = mock(ScoreItemMapper.class);
+        batchSqlSession = mock(BatchSqlSession.class);
+        auditStatsProvider = mock(AuditStatsProvider.class);
+        rankingService = mock(RankingService.class);
+        when(batchSqlSession.getMapper(ScoreItemMapper.class)).thenReturn(batchMapper);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+
+        ReflectionTestUtils.setField(service, "scoreItemMapper", scoreItemMapper);
+        ReflectionTestUtils.setField(service, "batchSqlSession", batchSqlSession);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "auditStatsProvider", auditStatsProvider);
+        ReflectionTestUtils.setField(service, "rankingService", rankingService);
+        ReflectionTestUtils.setField(service, "countCache", mock(CountCache.class));
+        ReflectionTestUtils.setField(service, "entityCache", mock(EntityCache.class));
+        ReflectionTestUtils.setField(service, "cacheProperties", new CacheProperties());
+        service.init();
+    }
+
+    @Test
+    void batchAuditMapsUpdateCountsToDecisions() {
+        when(scoreItemMapper.findByIds(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "2", ScoreItem.Status.PENDING, null),
+                item(2L, "s1", "3", ScoreItem.Status.PENDING, null),
+                item(3L, "s2", "4", ScoreItem.Status.PENDING, null)));
+        when(batchMapper.findByIdsForUpdate(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "2", ScoreItem.Status.PENDING, null),
+                item(2L, "s1", "3", ScoreItem.Status.PENDING, null)));
+        // 通过、驳回各一组，组内顺序与调用顺序一致；第二个通过的项目已被他人处理
+        when(batchSqlSession.flushStatements()).thenReturn(List.of(batchResult(1, 0), batchResult(1)));
+
+        BatchAuditResult result = service.batchAudit("t1", "老师", List.of(
+                decision(3L, AuditDecision.REJECT, "材料不全"),
+                decision(1L, AuditDecision.APPROVE, null),
+                decision(2L, AuditDecision.APPROVE, null),
+                decision(9L, AuditDecision.APPROVE, null)));
+
+        assertTrue(result.getItems().get(0).getSuccess());
+        assertTrue(result.getItems().get(1).getSuccess());
+        assertFalse(result.getItems().get(2).getSuccess());
+        assertFalse(result.getItems().get(3).getSuccess());
+        assertEquals(1, result.getApprovedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(2, result.getFailedCount());
+
+        verify(batchMapper).addApprovedScore("s1", new BigDecimal("2"));
+        verify(batchMapper, never()).addApprovedScore(eq("s2"), any());
+        verify(batchMapper, never()).findByIds(anyCollection());
+        verify(auditStatsProvider, times(1)).onApproved("t1");
+        verify(auditStatsProvider, times(1)).onRejected("t1");
+    }
+
+    @Test
+    void batchAuditDoesNotCountConcurrentApprovalsWhenDriverReturnsNoInfo() {
+        when(scoreItemMapper.findByIds(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "2", ScoreItem.Status.PENDING, null),
+                item(2L, "s2", "3", ScoreItem.Status.PENDING, null)));
+        when(batchMapper.findByIdsForUpdate(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "2", ScoreItem.Status.PENDING, null),
+                item(2L, "s2", "3", ScoreItem.Status.PENDING, null)));
+        when(batchSqlSession.flushStatements()).thenReturn(
+                List.of(batchResult(Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO)));
+        // 回读时项目 2 已由另一位老师先通过，本次 UPDATE 实际没有命中
+        when(batchMapper.findByIds(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "2", ScoreItem.Status.APPROVED, "t1"),
+                item(2L, "s2", "3", ScoreItem.Status.APPROVED, "t2")));
+
+        BatchAuditResult result = service.batchAudit("t1", "老师", List.of(
+                decision(1L, AuditDecision.APPROVE, null),
+                decision(2L, AuditDecision.APPROVE, null)));
+
+        assertTrue(result.getItems().get(0).getSuccess());
+        assertFalse(result.getItems().get(1).getSuccess());
+        assertEquals(1, result.getApprovedCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(1, result.getStudentsUpdated());
+
+        verify(batchMapper).addApprovedScore("s1", new BigDecimal("2"));
+        verify(batchMapper, never()).addApprovedScore(eq("s2"), any());
+        verify(auditStatsProvider, times(1)).onApproved("t1");
+    }
+
+    @Test
+    void batchAuditAdjustsApprovedScoreByTheLockedItemScore() {
+        when(scoreItemMapper.findByIds(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "2", ScoreItem.Status.PENDING, null)));
+        // 预读之后学生把待审核项目的分数从 2 改成了 6
+        when(batchMapper.findByIdsForUpdate(anyCollection())).thenReturn(List.of(
+                item(1L, "s1", "6", ScoreItem.Status.PENDING, null)));
+        when(batchSqlSession.flushStatements()).thenReturn(List.of(batchResult(1)));
+
+        service.batchAudit("t1", "老师", List.of(decision(1L, AuditDecision.APPROVE, null)));
+
+        verify(batchMapper).findByIdsForUpdate(Set.of(1L));
+        verify(batchMapper).addApprovedScore("s1", new BigDecimal("6"));
+    }
+
+    @Test
+    void approveAdjustsApprovedScoreByTheLockedItemScore() {
+        when(scoreItemMapper.findByIdForUpdate(1L)).thenReturn(item(1L, "s1", "5", ScoreItem.Status.PENDING, null));
+        when(scoreItemMapper.approveItem(eq(1L), eq("t1"), anyString(), any())).thenReturn(1);
+
+        assertTrue(service.approveItem(1L, "t1", "老师", null));
+
+        verify(scoreItemMapper).addApprovedScore("s1", new BigDecimal("5"));
+        verify(rankingService).refreshStudentRanking("s1");
+    }
+
+    @Test
+    void approveThatLosesTheRaceLeavesApprovedScoreAlone() {
+        when(scoreItemMapper.findByIdForUpdate(1L)).thenReturn(item(1L, "s1", "5", ScoreItem.Status.PENDING, null));
+        when(scoreItemMapper.approveItem(eq(1L), eq("t1"), anyString(), any())).thenReturn(0);
+
+        assertFalse(service.approveItem(1L, "t1", "老师", null));
+
+        verify(scoreItemMapper, never()).addApprovedScore(anyString(), any());
+        verify(auditStatsProvider, never()).onApproved(anyString());
+    }
+
+    @Test
+    void editingAnApprovedItemAdjustsByTheDifference() {
+        when(scoreItemMapper.findByIdForUpdate(1L)).thenReturn(item(1L, "s1", "5", ScoreItem.Status.APPROVED, "t1"));
+
+        assertTrue(service.updateItem(item(1L, "s1", "8", ScoreItem.Status.APPROVED, "t1")));
+
+        verify(scoreItemMapper).addApprovedScore("s1", new BigDecimal("3"));
+        verify(rankingService).refreshStudentRanking("s1");
+    }
+
+    @Test
+    void pendingItemsKeysetCursorContinuesAfterTheLastRow() {
+        LocalDateTime time = LocalDateTime.of(2026, 3, 1, 9, 30);
+        when(scoreItemMapper.findPendingItemsAfter(isNull(), isNull(), eq(3))).thenReturn(List.of(
+                summary(9L, time.plusMinutes(2)), summary(8L, time), summary(7L, time)));
+
+        Page<ScoreItemSummary> first = service.getPendingItemsAfter("", 2);
+
+        assertEquals(2, first.getList().size());
+        assertNotNull(first.getNextCursor());
+
+        // 同一时间的记录按 id 继续向后翻，下一页不足 pageSize + 1 条时没有下一页
+        when(scoreItemMapper.findPendingItemsAfter(time, 8L, 3)).thenReturn(List.of(summary(7L, time)));
+        Page<ScoreItemSummary> second = service.getPendingItemsAfter(first.getNextCursor(), 2);
+
+        assertEquals(1, second.getList().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void pendingItemsKeysetRejectsBadPageSizeAndCursor() {
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingItemsAfter("", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingItemsAfter("", -5));
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingItemsAfter("", Page.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingItemsAfter("%%%", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getPendingItemsAfter(PageCursor.encode("not-a-time", 1), 10));
+        verify(scoreItemMapper, never()).findPendingItemsAfter(any(), any(), anyInt());
+    }
+
+    private static ScoreItemSummary summary(Long id, LocalDateTime createTime) {
+        ScoreItemSummary summary = new ScoreItemSummary();
+        summary.setId(id);
+        summary.setCreateTime(createTime);
+        return summary;
+    }
+
+    private static BatchResult batchResult(int... counts) {
+        BatchResult result = new BatchResult(null, null);
+        result.setUpdateCounts(counts);
+        return result;
+    }
+
+    private static AuditDecision decision(Long id, String action, String note) {
+        AuditDecision decision = new AuditDecision();
+        decision.setId(id);
+        decision.setAction(action);
+        decision.setNote(note);
+        return decision;
+    }
+
+    static ScoreItem item(Long id, String studentId, String score, int status, String auditorId) {
+        ScoreItem item = new ScoreItem();
+        item.setId(id);
+        item.setStudentId(studentId);
+        item.setItemScore(new BigDecimal(score));
+        item.setStatus(status);
+        item.setAuditorId(auditorId);
+        return item;
+    }
+}